@@ -0,0 +1,132 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.CommentRepository;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.GetItemDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.param.PaginationRequest;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * {@link ItemService#getItems} of an owner with {@value #ITEMS} items, each with past and future bookings
+ * and comments, on the server's own context against embedded H2 (profile ci).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ItemServiceBenchmark {
+    private static final int ITEMS = 200;
+    private static final int COMMENTS_PER_ITEM = 3;
+
+    @Param({"10", "50"})
+    private int pageSize;
+
+    /**
+     * Profile added to ci: none keeps the second-level cache on, nocache turns it off.
+     */
+    @Param({"none", "nocache"})
+    private String profile;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private long ownerId;
+    private PaginationRequest firstPage;
+    private PaginationRequest deepPage;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=ci" + ("none".equals(profile) ? "" : "," + profile),
+                        "--logging.level.root=WARN");
+        itemService = context.getBean(ItemService.class);
+        ownerId = new TransactionTemplate(context.getBean(PlatformTransactionManager.class)).execute(s -> seed());
+        firstPage = new PaginationRequest(0, pageSize);
+        deepPage = new PaginationRequest(ITEMS / 2, pageSize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<GetItemDto> getItemsFirstPage() {
+        return itemService.getItems(ownerId, firstPage);
+    }
+
+    @Benchmark
+    public List<GetItemDto> getItemsDeepPage() {
+        return itemService.getItems(ownerId, deepPage);
+    }
+
+    private long seed() {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        User owner = userRepository.save(new User(null, "owner", "owner@bench.test", null));
+        User booker = userRepository.save(new User(null, "booker", "booker@bench.test", null));
+
+        List<Item> items = context.getBean(ItemRepository.class).saveAll(IntStream.range(0, ITEMS)
+                .mapToObj(i -> Item.builder()
+                        .name("drill " + i)
+                        .description("cordless drill with two batteries, item " + i)
+                        .available(true)
+                        .owner(owner)
+                        .build())
+                .collect(Collectors.toList()));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> bookings = new ArrayList<>();
+        List<Comment> comments = new ArrayList<>();
+        for (Item item : items) {
+            for (int day = -6; day <= 6; day += 4) {
+                bookings.add(Booking.builder()
+                        .start(now.plusDays(day))
+                        .end(now.plusDays(day).plusHours(12))
+                        .item(item)
+                        .booker(booker)
+                        .status(day < 0 ? BookingStatus.APPROVED : BookingStatus.WAITING)
+                        .build());
+            }
+            for (int i = 0; i < COMMENTS_PER_ITEM; i++) {
+                comments.add(new Comment(null, "worked fine, comment " + i, booker, item, now.minusDays(i)));
+            }
+        }
+        context.getBean(BookingRepository.class).saveAll(bookings);
+        context.getBean(CommentRepository.class).saveAll(comments);
+        return owner.getId();
+    }
+}
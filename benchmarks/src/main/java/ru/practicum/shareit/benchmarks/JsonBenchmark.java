@@ -0,0 +1,68 @@
+package ru.practicum.shareit.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.item.dto.GetItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Response bodies as Spring MVC writes them: one object and a page of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class JsonBenchmark {
+    @Param({"1", "20"})
+    private int pageSize;
+
+    private ObjectWriter writer;
+    private List<GetItemDto> items;
+    private List<BookingDto> bookings;
+
+    @Setup
+    public void setUp() {
+        // the same modules and features as the ObjectMapper Spring Boot configures for the server
+        writer = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build()
+                .writer();
+        SampleData data = new SampleData(5, 0);
+        GetItemDto item = ItemMapper.toItemDto(data.item, data.lastBooking, data.nextBooking, data.comments);
+        BookingDto booking = BookingMapper.toDto(data.lastBooking);
+        items = IntStream.range(0, pageSize).mapToObj(i -> item).collect(Collectors.toList());
+        bookings = IntStream.range(0, pageSize).mapToObj(i -> booking).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public byte[] getItemDtos() throws JsonProcessingException {
+        return writer.writeValueAsBytes(items);
+    }
+
+    @Benchmark
+    public byte[] bookingDtos() throws JsonProcessingException {
+        return writer.writeValueAsBytes(bookings);
+    }
+}
@@ -0,0 +1,81 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.item.dto.GetItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.param.PaginationRequest;
+import ru.practicum.shareit.param.PaginationRequestConverter;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class MapperBenchmark {
+    private static final Sort ID_ASC = Sort.by(Sort.Direction.ASC, "id");
+
+    private final SampleData data = new SampleData(0, 0);
+    private final PaginationRequest pageAligned = new PaginationRequest(20, 10);
+    private final PaginationRequest pageUnaligned = new PaginationRequest(25, 10);
+
+    @Benchmark
+    public BookingDto bookingToDto() {
+        return BookingMapper.toDto(data.lastBooking);
+    }
+
+    @Benchmark
+    public GetItemDto itemToGetItemDto(WithChildren children) {
+        SampleData d = children.data;
+        return ItemMapper.toItemDto(d.item, d.lastBooking, d.nextBooking, d.comments);
+    }
+
+    @Benchmark
+    public ItemRequestDto itemRequestToDto(WithChildren children) {
+        return ItemRequestMapper.toDto(children.data.request, children.data.requestItems);
+    }
+
+    @Benchmark
+    public Pageable toPageable() {
+        return PaginationRequestConverter.toPageable(pageAligned, ID_ASC);
+    }
+
+    @Benchmark
+    public Pageable toPageableWithOffset() {
+        return PaginationRequestConverter.toPageable(pageUnaligned, ID_ASC);
+    }
+
+    /**
+     * Sample data with this many comments of the item and items of the request.
+     */
+    @State(Scope.Benchmark)
+    public static class WithChildren {
+        @Param({"0", "10"})
+        private int count;
+
+        private SampleData data;
+
+        @Setup
+        public void setUp() {
+            data = new SampleData(count, count);
+        }
+    }
+}
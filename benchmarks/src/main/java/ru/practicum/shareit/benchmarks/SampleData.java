@@ -0,0 +1,60 @@
+package ru.practicum.shareit.benchmarks;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Detached entities shaped like the ones the services map: an item with bookings, comments and a request.
+ */
+final class SampleData {
+    static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    final User owner = new User(1L, "owner", "owner@mail.ru", null);
+    final User booker = new User(2L, "booker", "booker@mail.ru", null);
+    final ItemRequest request = new ItemRequest(1L, "need a drill for the weekend", booker, NOW.minusDays(3), 0L);
+    final Item item = item(1L);
+    final Booking lastBooking = booking(1L, NOW.minusDays(2));
+    final Booking nextBooking = booking(2L, NOW.plusDays(2));
+    final List<Comment> comments;
+    final List<Item> requestItems;
+
+    SampleData(int commentCount, int requestItemCount) {
+        comments = LongStream.rangeClosed(1, commentCount)
+                .mapToObj(id -> new Comment(id, "worked fine, comment " + id, booker, item, NOW.minusHours(id)))
+                .collect(Collectors.toList());
+        requestItems = LongStream.rangeClosed(1, requestItemCount)
+                .mapToObj(this::item)
+                .collect(Collectors.toList());
+    }
+
+    private Item item(long id) {
+        return Item.builder()
+                .id(id)
+                .name("drill " + id)
+                .description("cordless drill with two batteries, item " + id)
+                .available(true)
+                .owner(owner)
+                .request(request)
+                .build();
+    }
+
+    private Booking booking(long id, LocalDateTime start) {
+        return Booking.builder()
+                .id(id)
+                .start(start)
+                .end(start.plusDays(1))
+                .item(item)
+                .booker(booker)
+                .status(BookingStatus.APPROVED)
+                .build();
+    }
+}
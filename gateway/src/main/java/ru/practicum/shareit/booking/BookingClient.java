@@ -1,60 +1,85 @@
 package ru.practicum.shareit.booking;
 
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingFilterState;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerResponseCache;
+import ru.practicum.shareit.client.ServerTransport;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
-    @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public BookingClient(ServerTransport transport, ServerResponseCache cache) {
+        super(API_PREFIX, transport, cache);
     }
 
-    public ResponseEntity<Object> getBookings(long userId, BookingFilterState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+    public Mono<ResponseEntity<Object>> getBookings(long userId,
+                                                    BookingFilterState state,
+                                                    Integer from,
+                                                    Integer size,
+                                                    String after) {
+        Map<String, Object> parameters = pageParameters(from, size);
+        parameters.put("state", state.name());
+        return get(withCursor("?state={state}&from={from}&size={size}", parameters, after), userId, parameters);
     }
 
 
-    public ResponseEntity<Object> bookItem(long userId, BookingCreateDto requestDto) {
-        return post("", userId, requestDto);
+    public Mono<ResponseEntity<Object>> bookItem(long userId, BookingCreateDto requestDto) {
+        return evictOnSuccess(post("", userId, requestDto), response -> bookedItems(response.getBody()));
     }
 
-    public ResponseEntity<Object> getBooking(long userId, Long bookingId) {
+    public Mono<ResponseEntity<Object>> bookItems(long userId, List<BookingCreateDto> requestDtos) {
+        return evictOnSuccess(post("/batch", userId, requestDtos), response -> bookedItems(response.getBody()));
+    }
+
+    public Mono<ResponseEntity<Object>> getBooking(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> changeBookingStatus(long userId, long bookingId, boolean approved) {
-        return patch("/" + bookingId + "?approved={approved}", userId, Map.of("approved", approved), null);
+    public Mono<ResponseEntity<Object>> changeBookingStatus(long userId, long bookingId, boolean approved) {
+        return evictOnSuccess(patch("/" + bookingId + "?approved={approved}", userId, Map.of("approved", approved), null),
+                response -> bookedItems(response.getBody()));
+    }
+
+    public Mono<ResponseEntity<Object>> changeBookingStatuses(long userId, List<BookingStatusUpdateDto> updates) {
+        return evictOnSuccess(patch("/status", userId, updates), response -> bookedItems(response.getBody()));
+    }
+
+    public Mono<ResponseEntity<Object>> getOwnerBookings(long userId,
+                                                         BookingFilterState state,
+                                                         Integer from,
+                                                         Integer size,
+                                                         String after) {
+        Map<String, Object> parameters = pageParameters(from, size);
+        parameters.put("state", state.name());
+        return get(withCursor("/owner?state={state}&from={from}&size={size}", parameters, after), userId, parameters);
     }
 
-    public ResponseEntity<Object> getOwnerBookings(long userId, BookingFilterState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+    /**
+     * Items of the bookings in a response, a booking or a list of batch results: their last and next booking
+     * may have changed.
+     */
+    private static List<String> bookedItems(Object body) {
+        Collection<?> bookings = body instanceof Collection ? (Collection<?>) body : Collections.singletonList(body);
+        List<String> resources = new ArrayList<>();
+        for (Object booking : bookings) {
+            Object result = jsonValue(booking, "booking");
+            Object itemId = jsonValue(result != null ? result : booking, "item", "id");
+            if (itemId != null) {
+                resources.add("/items/" + itemId);
+            }
+        }
+        return resources;
     }
 }
@@ -6,13 +6,18 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingFilterState;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
 
 import javax.validation.Valid;
 import javax.validation.ValidationException;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -20,52 +25,76 @@ import javax.validation.constraints.PositiveOrZero;
 @Slf4j
 @Validated
 public class BookingController {
+    private static final int MAX_BATCH_SIZE = 500;
+
     private final BookingClient bookingClient;
 
     @GetMapping
-    public ResponseEntity<Object> getBookings(@RequestHeader("X-Sharer-User-Id") long userId,
-                                              @RequestParam(name = "state", defaultValue = "all") String stateParam,
-                                              @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public Mono<ResponseEntity<Object>> getBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                    @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                                                    @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                    @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                    @RequestParam(required = false) String after) {
         BookingFilterState state = BookingFilterState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getBookings(userId, state, from, size);
+        log.info("Get booking with state {}, userId={}, from={}, size={}, after={}", stateParam, userId, from, size, after);
+        return bookingClient.getBookings(userId, state, from, size, after);
     }
 
     @PostMapping
-    public ResponseEntity<Object> bookItem(@RequestHeader("X-Sharer-User-Id") long userId,
-                                           @RequestBody @Valid BookingCreateDto requestDto) {
+    public Mono<ResponseEntity<Object>> bookItem(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                 @RequestBody @Valid BookingCreateDto requestDto) {
         validate(requestDto);
         log.info("Creating booking {}, userId={}", requestDto, userId);
         return bookingClient.bookItem(userId, requestDto);
     }
 
+    /**
+     * Entries are checked by the server one by one, so an invalid entry fails alone instead of the whole batch.
+     */
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<Object>> bookItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                  @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE)
+                                                  List<BookingCreateDto> requestDtos) {
+        log.info("Creating {} bookings, userId={}", requestDtos.size(), userId);
+        return bookingClient.bookItems(userId, requestDtos);
+    }
+
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
-                                             @PathVariable Long bookingId) {
+    public Mono<ResponseEntity<Object>> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                   @PathVariable Long bookingId) {
         log.info("Get booking {}, userId={}", bookingId, userId);
         return bookingClient.getBooking(userId, bookingId);
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> changeBookingStatus(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                      @PathVariable long bookingId,
-                                                      @RequestParam boolean approved) {
+    public Mono<ResponseEntity<Object>> changeBookingStatus(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                            @PathVariable long bookingId,
+                                                            @RequestParam boolean approved) {
         log.info("Change booking status {}, userId = {}, status = {}", bookingId, userId, approved);
         return bookingClient.changeBookingStatus(userId, bookingId, approved);
     }
 
+    @PatchMapping("/status")
+    public Mono<ResponseEntity<Object>> changeBookingStatuses(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                              @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE)
+                                                              List<BookingStatusUpdateDto> updates) {
+        log.info("Change status of {} bookings, userId = {}", updates.size(), userId);
+        return bookingClient.changeBookingStatuses(userId, updates);
+    }
+
     @GetMapping("/owner")
-    public ResponseEntity<Object> getOwnerBookings(
+    public Mono<ResponseEntity<Object>> getOwnerBookings(
             @RequestHeader("X-Sharer-User-Id") long userId,
             @RequestParam(name = "state", required = false, defaultValue = "all") String stateParam,
             @PositiveOrZero @RequestParam(defaultValue = "0") int from,
-            @Positive @RequestParam(defaultValue = "10") int size) {
+            @Positive @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after) {
         BookingFilterState state = BookingFilterState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get owner booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getOwnerBookings(userId, state, from, size);
+        log.info("Get owner booking with state {}, userId={}, from={}, size={}, after={}",
+                stateParam, userId, from, size, after);
+        return bookingClient.getOwnerBookings(userId, state, from, size, after);
     }
 
     private void validate(BookingCreateDto dto) {
@@ -2,93 +2,152 @@ package ru.practicum.shareit.client;
 
 import org.springframework.http.*;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 public class BaseClient {
-    protected final RestTemplate rest;
+    private final String apiPrefix;
+    private final ServerTransport transport;
+    private final ServerResponseCache cache;
 
-    public BaseClient(RestTemplate rest) {
-        this.rest = rest;
+    public BaseClient(String apiPrefix, ServerTransport transport, ServerResponseCache cache) {
+        this.apiPrefix = apiPrefix;
+        this.transport = transport;
+        this.cache = cache;
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    protected Mono<ResponseEntity<Object>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    /**
+     * A GET answered from {@link ServerResponseCache} when it can be. Only for responses that every mutation
+     * of their resource evicts, see {@link #evictOnSuccess}.
+     */
+    protected Mono<ResponseEntity<Object>> cachedGet(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        String template = apiPrefix + path;
+        int query = template.indexOf('?');
+        String uri = UriComponentsBuilder.fromUriString(template)
+                .encode()
+                .buildAndExpand(parameters != null ? parameters : Map.of())
+                .toUriString();
+        return cache.get(query < 0 ? template : template.substring(0, query), uri, userId, validators -> {
+            HttpHeaders headers = defaultHeaders(userId);
+            headers.addAll(validators);
+            return transport.exchange(HttpMethod.GET, template, headers, parameters, null);
+        });
+    }
+
+    /**
+     * Once the mutation succeeded, drops the cached responses of the resources it changed, such as /items/1,
+     * which may depend on what the server answered, and of every resource under {@code prefixes}.
+     */
+    protected Mono<ResponseEntity<Object>> evictOnSuccess(Mono<ResponseEntity<Object>> mutation,
+                                                          Function<ResponseEntity<Object>, Collection<String>> resources,
+                                                          String... prefixes) {
+        return mutation.doOnNext(response -> {
+            if (response.getStatusCode().is2xxSuccessful()) {
+                resources.apply(response).forEach(cache::evict);
+                Arrays.stream(prefixes).forEach(cache::evictUnder);
+            }
+        });
+    }
+
+    protected <T> Mono<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected Mono<ResponseEntity<Object>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Object>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
-
-        ResponseEntity<Object> shareitServerResponse;
-        try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+    protected static String withCursor(String path, Map<String, Object> parameters, @Nullable String after) {
+        if (after == null) {
+            return path;
+        }
+        parameters.put("after", after);
+        return path + "&after={after}";
+    }
+
+    /**
+     * A value of a response body read as JSON objects, e.g. jsonValue(body, "item", "id"); null if missing.
+     */
+    @Nullable
+    protected static Object jsonValue(@Nullable Object json, String... path) {
+        Object value = json;
+        for (String field : path) {
+            if (!(value instanceof Map)) {
+                return null;
             }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            value = ((Map<?, ?>) value).get(field);
         }
-        return prepareGatewayResponse(shareitServerResponse);
+        return value;
+    }
+
+    protected static Map<String, Object> pageParameters(Integer from, Integer size) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("from", from);
+        parameters.put("size", size);
+        return parameters;
+    }
+
+    private <T> Mono<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        return transport.exchange(method, apiPrefix + path, defaultHeaders(userId), parameters, body);
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -100,18 +159,4 @@ public class BaseClient {
         }
         return headers;
     }
-
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
-
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
-
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
-        }
-
-        return responseBuilder.build();
-    }
 }
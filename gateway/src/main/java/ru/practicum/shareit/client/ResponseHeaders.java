@@ -0,0 +1,27 @@
+package ru.practicum.shareit.client;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.http.HttpHeaders;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The headers of a server response that the gateway passes on. Hop-by-hop headers belong to the connection to the
+ * server, and Content-Length to the body as the server encoded it: the gateway encodes it again.
+ */
+@UtilityClass
+class ResponseHeaders {
+    private static final Set<String> NOT_PASSED = Set.of("connection", "keep-alive", "proxy-authenticate",
+            "proxy-authorization", "te", "trailer", "transfer-encoding", "upgrade", "content-length");
+
+    static HttpHeaders passedOn(HttpHeaders headers) {
+        HttpHeaders passed = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            if (!NOT_PASSED.contains(name.toLowerCase(Locale.ROOT))) {
+                passed.addAll(name, values);
+            }
+        });
+        return passed;
+    }
+}
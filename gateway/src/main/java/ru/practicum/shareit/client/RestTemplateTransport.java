@@ -0,0 +1,53 @@
+package ru.practicum.shareit.client;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Blocking transport: the request runs on the thread that subscribes, i.e. the servlet thread.
+ * The server's headers are passed on with every status (see {@link ResponseHeaders}), error bodies as raw bytes.
+ */
+@RequiredArgsConstructor
+public class RestTemplateTransport implements ServerTransport {
+    private final RestTemplate rest;
+
+    @Override
+    public Mono<ResponseEntity<Object>> exchange(HttpMethod method,
+                                                 String path,
+                                                 HttpHeaders headers,
+                                                 @Nullable Map<String, Object> parameters,
+                                                 @Nullable Object body) {
+        return Mono.fromSupplier(() -> send(method, path, new HttpEntity<>(body, headers), parameters));
+    }
+
+    private ResponseEntity<Object> send(HttpMethod method,
+                                        String path,
+                                        HttpEntity<Object> requestEntity,
+                                        @Nullable Map<String, Object> parameters) {
+        ResponseEntity<Object> shareitServerResponse;
+        try {
+            if (parameters != null) {
+                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
+            } else {
+                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+            }
+        } catch (HttpStatusCodeException e) {
+            HttpHeaders headers = e.getResponseHeaders();
+            return ResponseEntity.status(e.getStatusCode())
+                    .headers(headers != null ? ResponseHeaders.passedOn(headers) : null)
+                    .body(e.getResponseBodyAsByteArray());
+        }
+        return ResponseEntity.status(shareitServerResponse.getStatusCode())
+                .headers(ResponseHeaders.passedOn(shareitServerResponse.getHeaders()))
+                .body(shareitServerResponse.getBody());
+    }
+}
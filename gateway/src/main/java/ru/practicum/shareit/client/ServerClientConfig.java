@@ -0,0 +1,116 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import io.netty.channel.ChannelOption;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.http.HttpClient;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@EnableConfigurationProperties(ServerClientProperties.class)
+public class ServerClientConfig {
+    private static final String CLIENT_NAME = "shareit-server";
+    private static final String TRANSPORT_PROPERTY = "shareit-server.transport";
+
+    @Bean
+    @ConditionalOnProperty(name = TRANSPORT_PROPERTY, havingValue = "rest-template", matchIfMissing = true)
+    public ServerTransport restTemplateTransport(ServerClientProperties properties,
+                                                 RestTemplateBuilder builder,
+                                                 ClientHttpRequestFactory serverRequestFactory) {
+        return new RestTemplateTransport(builder
+                .uriTemplateHandler(new DefaultUriBuilderFactory(properties.getUrl()))
+                .requestFactory(() -> serverRequestFactory)
+                .build());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = TRANSPORT_PROPERTY, havingValue = "web-client")
+    public ServerTransport webClientTransport(ServerClientProperties properties,
+                                              WebClient.Builder builder,
+                                              ConnectionProvider serverConnectionProvider) {
+        reactor.netty.http.client.HttpClient client = reactor.netty.http.client.HttpClient.create(serverConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getReadTimeout())
+                .protocol(properties.isHttp2() ? HttpProtocol.H2C : HttpProtocol.HTTP11);
+        return new WebClientTransport(builder
+                .baseUrl(properties.getUrl())
+                .clientConnector(new ReactorClientHttpConnector(client))
+                .build());
+    }
+
+    @Bean
+    public ServerResponseCache serverResponseCache(ServerClientProperties properties, MeterRegistry registry) {
+        return new ServerResponseCache(properties.getCache(), registry);
+    }
+
+    /**
+     * Pool gauges are published as reactor.netty.connection.provider.* with tag name=shareit-server.
+     */
+    @Bean(destroyMethod = "dispose")
+    @ConditionalOnProperty(name = TRANSPORT_PROPERTY, havingValue = "web-client")
+    public ConnectionProvider serverConnectionProvider(ServerClientProperties properties) {
+        return ConnectionProvider.builder(CLIENT_NAME)
+                .maxConnections(properties.getMaxConnections())
+                .pendingAcquireTimeout(properties.getConnectionRequestTimeout())
+                .maxIdleTime(properties.getKeepAlive())
+                .evictInBackground(properties.getKeepAlive())
+                .metrics(true)
+                .build();
+    }
+
+    /**
+     * One connection pool for all clients: they all talk to the same server, so a pool per client
+     * would only split the connections between them.
+     */
+    @Bean
+    @ConditionalOnProperty(name = TRANSPORT_PROPERTY, havingValue = "rest-template", matchIfMissing = true)
+    public ClientHttpRequestFactory serverRequestFactory(ServerClientProperties properties, MeterRegistry registry) {
+        if (properties.isHttp2()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .connectTimeout(properties.getConnectTimeout())
+                    .build();
+            return new JdkClientHttpRequestFactory(client, properties.getReadTimeout());
+        }
+
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(properties.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(properties.getMaxConnectionsPerRoute());
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, CLIENT_NAME).bindTo(registry);
+
+        long keepAlive = properties.getKeepAlive().toMillis();
+        CloseableHttpClient client = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout((int) properties.getConnectTimeout().toMillis())
+                        .setSocketTimeout((int) properties.getReadTimeout().toMillis())
+                        .setConnectionRequestTimeout((int) properties.getConnectionRequestTimeout().toMillis())
+                        .build())
+                .setKeepAliveStrategy((response, context) -> {
+                    long advertised = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return advertised > 0 ? Math.min(advertised, keepAlive) : keepAlive;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAlive, TimeUnit.MILLISECONDS)
+                .build();
+        return new HttpComponentsClientHttpRequestFactory(client);
+    }
+}
@@ -0,0 +1,89 @@
+package ru.practicum.shareit.client;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import java.time.Duration;
+
+/**
+ * Transport settings shared by all clients of the shareit server.
+ */
+@Data
+@Validated
+@ConfigurationProperties(prefix = "shareit-server")
+public class ServerClientProperties {
+    @NotBlank
+    private String url;
+
+    @NotNull
+    private Transport transport = Transport.REST_TEMPLATE;
+
+    /**
+     * Talk HTTP/2 over cleartext (h2c) instead of pooled HTTP/1.1 connections.
+     */
+    private boolean http2;
+
+    @NotNull
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    @NotNull
+    private Duration readTimeout = Duration.ofSeconds(10);
+
+    /**
+     * How long a request waits for a free pooled connection.
+     */
+    @NotNull
+    private Duration connectionRequestTimeout = Duration.ofSeconds(2);
+
+    @Positive
+    private int maxConnections = 200;
+
+    @Positive
+    private int maxConnectionsPerRoute = 200;
+
+    /**
+     * Idle connections are reused for at most this long; keep it below the server's keep-alive timeout.
+     */
+    @NotNull
+    private Duration keepAlive = Duration.ofSeconds(15);
+
+    @Valid
+    @NotNull
+    private Cache cache = new Cache();
+
+    /**
+     * Settings of {@link ServerResponseCache}.
+     */
+    @Data
+    public static class Cache {
+        /**
+         * Responses kept at most; 0 turns the cache off.
+         */
+        @PositiveOrZero
+        private long maxEntries = 10_000;
+
+        /**
+         * How long a response without Cache-Control is served without asking the server. Items show their
+         * last and next booking, which move on with time, so keep it short.
+         */
+        @NotNull
+        private Duration ttl = Duration.ofSeconds(10);
+    }
+
+    public enum Transport {
+        /**
+         * Blocks the calling servlet thread for the whole round trip.
+         */
+        REST_TEMPLATE,
+        /**
+         * Reactor Netty, no thread is held while the server is working.
+         */
+        WEB_CLIENT
+    }
+}
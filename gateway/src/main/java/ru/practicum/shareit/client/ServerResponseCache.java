@@ -0,0 +1,191 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Successful responses of idempotent GETs, by resource (path without query), query and user. A fresh response is
+ * served without asking the server; a stale one with an ETag is revalidated with If-None-Match and kept on 304.
+ * Freshness follows the server's Cache-Control: no-store is not cached, no-cache is always revalidated, max-age
+ * sets it; without the header it is shareit-server.cache.ttl.
+ * <p>
+ * Mutations proxied by the clients drop the responses of the resources they change, see
+ * {@link BaseClient#evictOnSuccess}. The cache maps each resource to the set of its responses, so a drop removes
+ * one entry. A response that was on its way while its resource was dropped goes into the set it was sent for,
+ * which is no longer in the cache: it may predate the change and is never served.
+ */
+public class ServerResponseCache {
+    private static final String NAME = "shareit-server.responses";
+
+    @Nullable
+    private final Cache<String, Responses> cache;
+    private final Duration ttl;
+    private final Counter hits;
+    private final Counter revalidations;
+    private final Counter misses;
+
+    public ServerResponseCache(ServerClientProperties.Cache properties, MeterRegistry registry) {
+        ttl = properties.getTtl();
+        if (properties.getMaxEntries() > 0) {
+            cache = Caffeine.newBuilder()
+                    .maximumWeight(properties.getMaxEntries())
+                    .weigher((String resource, Responses responses) -> Math.max(1, responses.entries.size()))
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(registry, cache, NAME);
+        } else {
+            cache = null;
+        }
+        hits = requests(registry, "hit");
+        revalidations = requests(registry, "revalidated");
+        misses = requests(registry, "miss");
+    }
+
+    /**
+     * The cached response, or the one {@code send} gets from the server given the validators (If-None-Match)
+     * to add to the request.
+     */
+    public Mono<ResponseEntity<Object>> get(String resource,
+                                            String uri,
+                                            @Nullable Long userId,
+                                            Function<HttpHeaders, Mono<ResponseEntity<Object>>> send) {
+        if (cache == null) {
+            return send.apply(HttpHeaders.EMPTY);
+        }
+        return Mono.defer(() -> {
+            Responses responses = cache.get(resource, r -> new Responses());
+            Variant variant = new Variant(uri, userId);
+            Entry cached = responses.entries.get(variant);
+            if (cached != null && cached.isFresh()) {
+                hits.increment();
+                return Mono.just(cached.getResponse());
+            }
+            HttpHeaders validators = new HttpHeaders();
+            if (cached != null && cached.getResponse().getHeaders().getETag() != null) {
+                validators.setIfNoneMatch(cached.getResponse().getHeaders().getETag());
+            }
+            return send.apply(validators).map(response -> {
+                if (cached != null && response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                    revalidations.increment();
+                    store(cache, resource, responses, variant, cached.getResponse(), freshness(response));
+                    return cached.getResponse();
+                }
+                misses.increment();
+                store(cache, resource, responses, variant, response,
+                        response.getStatusCode() == HttpStatus.OK ? freshness(response) : null);
+                return response;
+            });
+        });
+    }
+
+    /**
+     * Drops the responses of the resource, of every query and user.
+     */
+    public void evict(String resource) {
+        if (cache == null) {
+            return;
+        }
+        cache.invalidate(resource);
+    }
+
+    /**
+     * Drops the responses of every resource whose path starts with {@code prefix}. Scans the resources: it is for
+     * the rare changes shown by resources that cannot be named, like a user's name in the comments of items.
+     */
+    public void evictUnder(String prefix) {
+        if (cache == null) {
+            return;
+        }
+        cache.asMap().keySet().removeIf(resource -> resource.startsWith(prefix));
+    }
+
+    /**
+     * Keeps the response of the variant, or drops it if {@code freshness} is null, in the set the request was
+     * sent for. Replacing the set by itself weighs it again, unless it was evicted meanwhile.
+     */
+    private static void store(Cache<String, Responses> resources, String resource, Responses responses, Variant variant,
+                              ResponseEntity<Object> response, @Nullable Duration freshness) {
+        if (freshness == null) {
+            responses.entries.remove(variant);
+        } else {
+            responses.entries.put(variant, new Entry(response, System.nanoTime() + freshness.toNanos()));
+        }
+        resources.asMap().replace(resource, responses, responses);
+    }
+
+    /**
+     * How long the response may be served without asking the server, null if it must not be stored.
+     */
+    @Nullable
+    private Duration freshness(ResponseEntity<?> response) {
+        String cacheControl = response.getHeaders().getCacheControl();
+        if (cacheControl == null) {
+            return ttl;
+        }
+        Duration maxAge = ttl;
+        for (String directive : cacheControl.toLowerCase(Locale.ROOT).split(",")) {
+            directive = directive.trim();
+            if (directive.equals("no-store")) {
+                return null;
+            }
+            if (directive.equals("no-cache")) {
+                maxAge = Duration.ZERO;
+                break;
+            }
+            if (directive.startsWith("max-age=")) {
+                try {
+                    maxAge = Duration.ofSeconds(Long.parseLong(directive.substring("max-age=".length())));
+                } catch (NumberFormatException e) {
+                    maxAge = Duration.ZERO;
+                }
+            }
+        }
+        return maxAge;
+    }
+
+    private static Counter requests(MeterRegistry registry, String result) {
+        return Counter.builder(NAME + ".requests")
+                .description("GETs of cacheable server resources: served from the cache, revalidated or sent")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    /**
+     * The responses of one resource, compared by identity: a set that was evicted stays different from the one
+     * that replaced it.
+     */
+    private static final class Responses {
+        private final Map<Variant, Entry> entries = new ConcurrentHashMap<>();
+    }
+
+    @Value
+    private static class Variant {
+        String uri;
+        Long userId;
+    }
+
+    @Value
+    private static class Entry {
+        ResponseEntity<Object> response;
+        long freshUntilNanos;
+
+        boolean isFresh() {
+            return freshUntilNanos - System.nanoTime() > 0;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Sends a request to the shareit server and hands back its response, error statuses included.
+ */
+public interface ServerTransport {
+    Mono<ResponseEntity<Object>> exchange(HttpMethod method,
+                                          String path,
+                                          HttpHeaders headers,
+                                          @Nullable Map<String, Object> parameters,
+                                          @Nullable Object body);
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.client;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Non-blocking transport: no thread is held while the server is working on the request.
+ * Error bodies are passed through as raw bytes and the server's headers (X-Next-Cursor, ETag, Cache-Control) with
+ * every status, see {@link ResponseHeaders}, the same way {@link RestTemplateTransport} does.
+ */
+@RequiredArgsConstructor
+public class WebClientTransport implements ServerTransport {
+    private final WebClient webClient;
+
+    @Override
+    public Mono<ResponseEntity<Object>> exchange(HttpMethod method,
+                                                 String path,
+                                                 HttpHeaders headers,
+                                                 @Nullable Map<String, Object> parameters,
+                                                 @Nullable Object body) {
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(h -> h.addAll(headers));
+        WebClient.RequestHeadersSpec<?> spec = body != null ? request.bodyValue(body) : request;
+        return spec.exchangeToMono(response -> {
+            int status = response.rawStatusCode();
+            HttpHeaders responseHeaders = ResponseHeaders.passedOn(response.headers().asHttpHeaders());
+            Class<?> bodyType = response.statusCode().is2xxSuccessful() ? Object.class : byte[].class;
+            return response.bodyToMono(bodyType)
+                    .<ResponseEntity<Object>>map(b -> ResponseEntity.status(status).headers(responseHeaders).body(b))
+                    .defaultIfEmpty(ResponseEntity.status(status).headers(responseHeaders).build());
+        });
+    }
+}
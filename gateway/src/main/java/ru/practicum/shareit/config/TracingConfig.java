@@ -0,0 +1,41 @@
+package ru.practicum.shareit.config;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Tracer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.client.ServerTransport;
+import ru.practicum.shareit.tracing.OpenTelemetryConfig;
+import ru.practicum.shareit.tracing.TracingServerTransport;
+
+/**
+ * OpenTelemetry tracing: a server span per request and a client span per call to the server under it, whose
+ * context the server continues. The gap between the two is the gateway's own time. The tracer and the request
+ * spans are the ones of {@link OpenTelemetryConfig}.
+ */
+@Configuration
+@Import(OpenTelemetryConfig.class)
+@ConditionalOnProperty(name = "shareit.tracing.enabled", matchIfMissing = true)
+public class TracingConfig {
+    /**
+     * Whichever transport shareit-server.transport selects gets traced.
+     */
+    @Bean
+    public static BeanPostProcessor tracingTransportPostProcessor(ObjectProvider<OpenTelemetry> openTelemetry,
+                                                                  ObjectProvider<Tracer> tracer) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof ServerTransport && !(bean instanceof TracingServerTransport)) {
+                    return new TracingServerTransport((ServerTransport) bean, openTelemetry.getObject(),
+                            tracer.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
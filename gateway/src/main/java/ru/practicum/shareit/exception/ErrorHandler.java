@@ -7,9 +7,15 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
 
 import javax.validation.ConstraintViolationException;
 import javax.validation.ValidationException;
+import java.io.InterruptedIOException;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.TimeoutException;
 
 
 @ControllerAdvice
@@ -27,10 +33,22 @@ public class ErrorHandler {
             MethodArgumentNotValidException.class
     })
     public ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException e) {
-        FieldError fieldError = e.getBindingResult().getFieldError();
-        return new ResponseEntity<>(
-                new ErrorResponse(fieldError.getField() + " " + fieldError.getDefaultMessage()),
-                HttpStatus.BAD_REQUEST);
+        return handleInvalidField(e.getBindingResult().getFieldError());
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<Object> handleBindError(WebExchangeBindException e) {
+        return handleInvalidField(e.getFieldError());
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<Object> handleServerUnreachable(ResourceAccessException e) {
+        return handleServerUnreachable(e, e.getCause());
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<Object> handleServerUnreachable(WebClientRequestException e) {
+        return handleServerUnreachable(e, e.getCause());
     }
 
     @ExceptionHandler
@@ -42,4 +60,21 @@ public class ErrorHandler {
                 HttpStatus.INTERNAL_SERVER_ERROR
         );
     }
+
+    private ResponseEntity<Object> handleInvalidField(FieldError fieldError) {
+        return new ResponseEntity<>(
+                new ErrorResponse(fieldError.getField() + " " + fieldError.getDefaultMessage()),
+                HttpStatus.BAD_REQUEST);
+    }
+
+    private ResponseEntity<Object> handleServerUnreachable(Exception e, Throwable cause) {
+        boolean timedOut = cause instanceof InterruptedIOException
+                || cause instanceof HttpTimeoutException
+                || cause instanceof TimeoutException
+                || cause instanceof io.netty.handler.timeout.TimeoutException;
+        return new ResponseEntity<>(
+                new ErrorResponse(e.getMessage()),
+                timedOut ? HttpStatus.GATEWAY_TIMEOUT : HttpStatus.BAD_GATEWAY
+        );
+    }
 }
@@ -1,62 +1,80 @@
 package ru.practicum.shareit.item;
 
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerResponseCache;
+import ru.practicum.shareit.client.ServerTransport;
 import ru.practicum.shareit.item.dto.CreateCommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
-    @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public ItemClient(ServerTransport transport, ServerResponseCache cache) {
+        super(API_PREFIX, transport, cache);
+    }
+
+    public Mono<ResponseEntity<Object>> addItem(long userId, ItemDto itemDto) {
+        return evictOnSuccess(post("", userId, itemDto), response -> itemResources(response.getBody()));
+    }
+
+    public Mono<ResponseEntity<Object>> getItem(long userId, long itemId) {
+        return cachedGet("/" + itemId, userId, null);
     }
 
-    public ResponseEntity<Object> addItem(long userId, ItemDto itemDto) {
-        return post("", userId, itemDto);
+    public Mono<ResponseEntity<Object>> getItems(long userId, Integer from, Integer size, String after) {
+        Map<String, Object> parameters = pageParameters(from, size);
+        return get(withCursor("?from={from}&size={size}", parameters, after), userId, parameters);
     }
 
-    public ResponseEntity<Object> getItem(long userId, long itemId) {
-        return get("/" + itemId, userId);
+    public Mono<ResponseEntity<Object>> updateItem(long userId, long itemId, ItemDto itemDto) {
+        return evictOnSuccess(patch("/" + itemId, userId, itemDto), response -> itemResources(response.getBody()));
     }
 
-    public ResponseEntity<Object> getItems(long userId, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getAvailability(long itemId, LocalDateTime from, LocalDateTime to) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
-                "size", size
+                "to", to
         );
-        return get("?from={from}&size={size}", userId, parameters);
-    }
-
-    public ResponseEntity<Object> updateItem(long userId, long itemId, ItemDto itemDto) {
-        return patch("/" + itemId, userId, itemDto);
+        return get("/" + itemId + "/availability?from={from}&to={to}", null, parameters);
     }
 
-    public ResponseEntity<Object> searchItems(String text, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> searchItems(String text, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "text", text,
                 "from", from,
                 "size", size
         );
-        return get("/search?text={text}&from={from}&size={size}", null, parameters);
+        return cachedGet("/search?text={text}&from={from}&size={size}", null, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> addComment(long userId, long itemId, CreateCommentDto commentDto) {
+        return evictOnSuccess(post("/" + itemId + "/comment", userId, commentDto),
+                response -> List.of(API_PREFIX + "/" + itemId));
     }
 
-    public ResponseEntity<Object> addComment(long userId, long itemId, CreateCommentDto commentDto) {
-        return post("/" + itemId + "/comment", userId, commentDto);
+    /**
+     * The item, the searches that may find it and the request it answers.
+     */
+    private static List<String> itemResources(Object item) {
+        List<String> resources = new ArrayList<>();
+        resources.add(API_PREFIX + "/search");
+        Object id = jsonValue(item, "id");
+        if (id != null) {
+            resources.add(API_PREFIX + "/" + id);
+        }
+        Object requestId = jsonValue(item, "requestId");
+        if (requestId != null) {
+            resources.add("/requests/" + requestId);
+        }
+        return resources;
     }
 }
@@ -2,17 +2,20 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.item.dto.CreateCommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
 import java.util.Collections;
 
 @Controller
@@ -24,50 +27,63 @@ public class ItemController {
     private final ItemClient itemClient;
 
     @PostMapping
-    public ResponseEntity<Object> addItem(@RequestHeader("X-Sharer-User-Id") long userId,
-                                          @RequestBody @Valid ItemDto item) {
+    public Mono<ResponseEntity<Object>> addItem(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                @RequestBody @Valid ItemDto item) {
         log.info("Add item {} of user {}", item, userId);
         return itemClient.addItem(userId, item);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Object> getItem(@RequestHeader("X-Sharer-User-Id") long userId,
-                                          @PathVariable long id) {
+    public Mono<ResponseEntity<Object>> getItem(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                @PathVariable long id) {
         log.info("Get item {} for user {}", id, userId);
         return itemClient.getItem(userId, id);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getUserItems(@RequestHeader("X-Sharer-User-Id") long userId,
-                                               @PositiveOrZero @RequestParam(defaultValue = "0") int from,
-                                               @Positive @RequestParam(defaultValue = "10") int size) {
-        log.info("Get items from {}, size {} for user {}", from, size, userId);
-        return itemClient.getItems(userId, from, size);
+    public Mono<ResponseEntity<Object>> getUserItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                     @PositiveOrZero @RequestParam(defaultValue = "0") int from,
+                                                     @Positive @RequestParam(defaultValue = "10") int size,
+                                                     @RequestParam(required = false) String after) {
+        log.info("Get items from {}, size {}, after {} for user {}", from, size, after, userId);
+        return itemClient.getItems(userId, from, size, after);
     }
 
     @PatchMapping("/{id}")
-    public ResponseEntity<Object> patchItem(@RequestHeader("X-Sharer-User-Id") long userId,
-                                            @PathVariable long id,
-                                            @RequestBody ItemDto itemDto) {
+    public Mono<ResponseEntity<Object>> patchItem(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                  @PathVariable long id,
+                                                  @RequestBody ItemDto itemDto) {
         log.info("Change item {} for user {} with body {}", id, userId, itemDto);
         return itemClient.updateItem(userId, id, itemDto);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> searchForItems(@RequestParam String text,
-                                                 @PositiveOrZero @RequestParam(defaultValue = "0") int from,
-                                                 @Positive @RequestParam(defaultValue = "10") int size) {
+    public Mono<ResponseEntity<Object>> searchForItems(@RequestParam String text,
+                                                       @PositiveOrZero @RequestParam(defaultValue = "0") int from,
+                                                       @Positive @RequestParam(defaultValue = "10") int size) {
         log.info("Search items with query {}, from {}, size {}", text, from, size);
         if (text.isBlank()) {
-            return new ResponseEntity<>(Collections.emptyList(), HttpStatus.OK);
+            return Mono.just(new ResponseEntity<>(Collections.emptyList(), HttpStatus.OK));
         }
         return itemClient.searchItems(text, from, size);
     }
 
+    @GetMapping("/{id}/availability")
+    public Mono<ResponseEntity<Object>> getAvailability(
+            @PathVariable long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Get availability of item {} from {} to {}", id, from, to);
+        if (!to.isAfter(from)) {
+            throw new IllegalArgumentException("to must be after from");
+        }
+        return itemClient.getAvailability(id, from, to);
+    }
+
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> addCommentToItem(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                   @PathVariable long itemId,
-                                                   @RequestBody @Valid CreateCommentDto dto) {
+    public Mono<ResponseEntity<Object>> addCommentToItem(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                         @PathVariable long itemId,
+                                                         @RequestBody @Valid CreateCommentDto dto) {
         log.info("Create comment {} for item {} by user {}", dto, itemId, userId);
         return itemClient.addComment(userId, itemId, dto);
     }
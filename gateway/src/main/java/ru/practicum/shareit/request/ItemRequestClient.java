@@ -1,13 +1,11 @@
 package ru.practicum.shareit.request;
 
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerResponseCache;
+import ru.practicum.shareit.client.ServerTransport;
 import ru.practicum.shareit.request.dto.CreateRequestDto;
 
 import java.util.Map;
@@ -16,33 +14,24 @@ import java.util.Map;
 public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
-    @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public ItemRequestClient(ServerTransport transport, ServerResponseCache cache) {
+        super(API_PREFIX, transport, cache);
     }
 
-    public ResponseEntity<Object> addRequest(long userId, CreateRequestDto requestDto) {
+    public Mono<ResponseEntity<Object>> addRequest(long userId, CreateRequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> getUserRequests(long userId) {
+    public Mono<ResponseEntity<Object>> getUserRequests(long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getRequests(long userId, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "from", from,
-                "size", size
-        );
-        return get("/all?from={from}&size={size}", userId, parameters);
+    public Mono<ResponseEntity<Object>> getRequests(long userId, Integer from, Integer size, String after) {
+        Map<String, Object> parameters = pageParameters(from, size);
+        return get(withCursor("/all?from={from}&size={size}", parameters, after), userId, parameters);
     }
 
-    public ResponseEntity<Object> getRequest(long userId, long requestId) {
-        return get("/" + requestId, userId);
+    public Mono<ResponseEntity<Object>> getRequest(long userId, long requestId) {
+        return cachedGet("/" + requestId, userId, null);
     }
 }
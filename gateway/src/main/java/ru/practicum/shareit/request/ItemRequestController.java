@@ -6,6 +6,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.request.dto.CreateRequestDto;
 
 import javax.validation.Valid;
@@ -21,29 +22,30 @@ public class ItemRequestController {
     private final ItemRequestClient requestClient;
 
     @PostMapping
-    public ResponseEntity<Object> addRequest(@RequestHeader("X-Sharer-User-Id") long userId,
-                                             @RequestBody @Valid CreateRequestDto dto) {
+    public Mono<ResponseEntity<Object>> addRequest(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                   @RequestBody @Valid CreateRequestDto dto) {
         log.info("Add request {} for user {}", dto, userId);
         return requestClient.addRequest(userId, dto);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getUserRequests(@RequestHeader("X-Sharer-User-Id") long userId) {
+    public Mono<ResponseEntity<Object>> getUserRequests(@RequestHeader("X-Sharer-User-Id") long userId) {
         log.info("Get user {} requests", userId);
         return requestClient.getUserRequests(userId);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getAllRequests(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                 @PositiveOrZero @RequestParam(defaultValue = "0") int from,
-                                                 @Positive @RequestParam(defaultValue = "10") int size) {
-        log.info("Get all requests for user {}, from {}, size {}", userId, from, size);
-        return requestClient.getRequests(userId, from, size);
+    public Mono<ResponseEntity<Object>> getAllRequests(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                       @PositiveOrZero @RequestParam(defaultValue = "0") int from,
+                                                       @Positive @RequestParam(defaultValue = "10") int size,
+                                                       @RequestParam(required = false) String after) {
+        log.info("Get all requests for user {}, from {}, size {}, after {}", userId, from, size, after);
+        return requestClient.getRequests(userId, from, size, after);
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getRequest(@RequestHeader("X-Sharer-User-Id") long userId,
-                                             @PathVariable long requestId) {
+    public Mono<ResponseEntity<Object>> getRequest(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                   @PathVariable long requestId) {
         log.info("Get request {} for user {}", requestId, userId);
         return requestClient.getRequest(userId, requestId);
     }
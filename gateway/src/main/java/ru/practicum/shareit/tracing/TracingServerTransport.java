@@ -0,0 +1,69 @@
+package ru.practicum.shareit.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.ServerTransport;
+
+import java.util.Map;
+
+/**
+ * Wraps each call to the server in a client span, named after method and path template, and passes the trace
+ * on in a W3C traceparent header next to the ones of BaseClient.defaultHeaders. The span's parent is the
+ * request being handled when the call is made: the server span of {@link TracingFilter} on the servlet stack;
+ * on the reactive one the calls start traces of their own.
+ */
+@RequiredArgsConstructor
+public class TracingServerTransport implements ServerTransport {
+    private static final AttributeKey<String> HTTP_METHOD = AttributeKey.stringKey("http.method");
+    private static final AttributeKey<String> HTTP_URL = AttributeKey.stringKey("http.url");
+    private static final AttributeKey<Long> HTTP_STATUS_CODE = AttributeKey.longKey("http.status_code");
+
+    private final ServerTransport delegate;
+    private final OpenTelemetry openTelemetry;
+    private final Tracer tracer;
+
+    @Override
+    public Mono<ResponseEntity<Object>> exchange(HttpMethod method,
+                                                 String path,
+                                                 HttpHeaders headers,
+                                                 @Nullable Map<String, Object> parameters,
+                                                 @Nullable Object body) {
+        Context parent = Context.current();
+        return Mono.defer(() -> {
+            int query = path.indexOf('?');
+            Span span = tracer.spanBuilder(method + " " + (query < 0 ? path : path.substring(0, query)))
+                    .setParent(parent)
+                    .setSpanKind(SpanKind.CLIENT)
+                    .setAttribute(HTTP_METHOD, method.name())
+                    .setAttribute(HTTP_URL, path)
+                    .startSpan();
+            HttpHeaders tracedHeaders = new HttpHeaders();
+            tracedHeaders.putAll(headers);
+            openTelemetry.getPropagators().getTextMapPropagator()
+                    .inject(parent.with(span), tracedHeaders, HttpHeaders::set);
+            return delegate.exchange(method, path, tracedHeaders, parameters, body)
+                    .doOnNext(response -> {
+                        span.setAttribute(HTTP_STATUS_CODE, (long) response.getStatusCodeValue());
+                        if (response.getStatusCode().is5xxServerError()) {
+                            span.setStatus(StatusCode.ERROR);
+                        }
+                    })
+                    .doOnError(e -> {
+                        span.recordException(e);
+                        span.setStatus(StatusCode.ERROR);
+                    })
+                    .doFinally(signal -> span.end());
+        });
+    }
+}
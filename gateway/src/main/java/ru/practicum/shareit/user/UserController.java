@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import javax.validation.Valid;
@@ -17,31 +18,31 @@ public class UserController {
     private final UserClient userClient;
 
     @PostMapping
-    public ResponseEntity<Object> addUser(@RequestBody @Valid UserDto userDto) {
+    public Mono<ResponseEntity<Object>> addUser(@RequestBody @Valid UserDto userDto) {
         log.info("Add user {}", userDto);
         return userClient.addUser(userDto);
     }
 
     @PatchMapping("/{id}")
-    public ResponseEntity<Object> updateUser(@PathVariable long id, @RequestBody UserDto userDto) {
+    public Mono<ResponseEntity<Object>> updateUser(@PathVariable long id, @RequestBody UserDto userDto) {
         log.info("Update user {} with {}", id, userDto);
         return userClient.updateUser(id, userDto);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Object> getUser(@PathVariable long id) {
+    public Mono<ResponseEntity<Object>> getUser(@PathVariable long id) {
         log.info("Get user {}", id);
         return userClient.getUser(id);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getUsers() {
+    public Mono<ResponseEntity<Object>> getUsers() {
         log.info("Get users");
         return userClient.getUsers();
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Object> deleteUser(@PathVariable long id) {
+    public Mono<ResponseEntity<Object>> deleteUser(@PathVariable long id) {
         log.info("Delete user {}", id);
         return userClient.deleteUser(id);
     }
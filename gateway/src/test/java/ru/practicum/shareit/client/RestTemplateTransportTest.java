@@ -0,0 +1,83 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+public class RestTemplateTransportTest {
+    private static final String URL = "http://server/items/1";
+
+    private MockRestServiceServer server;
+    private RestTemplateTransport transport;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate rest = new RestTemplate();
+        server = MockRestServiceServer.bindTo(rest).build();
+        transport = new RestTemplateTransport(rest);
+    }
+
+    @Test
+    void exchange_whenOk_thenPassHeadersAndBody() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Next-Cursor", "cursor");
+        headers.setETag("\"1\"");
+        headers.set(HttpHeaders.CONNECTION, "keep-alive");
+        server.expect(requestTo(URL))
+                .andRespond(withSuccess("{\"id\":1}", MediaType.APPLICATION_JSON).headers(headers));
+
+        ResponseEntity<Object> response = exchange();
+
+        assertThat(response.getHeaders().getFirst("X-Next-Cursor"), equalTo("cursor"));
+        assertThat(response.getHeaders().getETag(), equalTo("\"1\""));
+        assertThat(response.getHeaders().containsKey(HttpHeaders.CONNECTION), equalTo(false));
+        assertThat(((Map<?, ?>) response.getBody()).get("id"), equalTo(1));
+    }
+
+    @Test
+    void exchange_whenNotModified_thenPassHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"1\"");
+        headers.setCacheControl("no-cache");
+        server.expect(requestTo(URL)).andRespond(withStatus(HttpStatus.NOT_MODIFIED).headers(headers));
+
+        ResponseEntity<Object> response = exchange();
+
+        assertThat(response.getStatusCode(), equalTo(HttpStatus.NOT_MODIFIED));
+        assertThat(response.getHeaders().getETag(), equalTo("\"1\""));
+        assertThat(response.getHeaders().getCacheControl(), equalTo("no-cache"));
+    }
+
+    @Test
+    void exchange_whenError_thenPassRawBodyAndHeaders() {
+        server.expect(requestTo(URL)).andRespond(withStatus(HttpStatus.NOT_FOUND)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("{\"error\":\"not found\"}"));
+
+        ResponseEntity<Object> response = exchange();
+
+        assertThat(response.getStatusCode(), equalTo(HttpStatus.NOT_FOUND));
+        assertThat(response.getHeaders().getContentType(), equalTo(MediaType.APPLICATION_JSON));
+        assertThat(response.getBody(), instanceOf(byte[].class));
+        assertThat(new String((byte[]) response.getBody()), equalTo("{\"error\":\"not found\"}"));
+    }
+
+    private ResponseEntity<Object> exchange() {
+        return transport.exchange(HttpMethod.GET, URL, new HttpHeaders(), null, null).block();
+    }
+}
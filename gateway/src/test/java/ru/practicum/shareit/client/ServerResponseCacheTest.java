@@ -0,0 +1,165 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+
+public class ServerResponseCacheTest {
+    private static final String RESOURCE = "/items/1";
+    private static final String URI = "/items/1";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ServerResponseCache cache = new ServerResponseCache(new ServerClientProperties.Cache(), registry);
+    private final List<HttpHeaders> sent = new ArrayList<>();
+
+    @Test
+    void get_whenFresh_thenServeWithoutSending() {
+        get(URI, 1L, ok("first", "max-age=60"));
+        ResponseEntity<Object> response = get(URI, 1L, ok("second", "max-age=60"));
+
+        assertThat(response.getBody(), equalTo("first"));
+        assertThat(sent, hasSize(1));
+        assertThat(requests("hit"), equalTo(1.0));
+    }
+
+    @Test
+    void get_whenOtherUserOrQuery_thenSend() {
+        get(URI, 1L, ok("first", null));
+        ResponseEntity<Object> otherUser = get(URI, 2L, ok("second", null));
+        ResponseEntity<Object> otherQuery = get(URI + "?size=1", 1L, ok("third", null));
+
+        assertThat(otherUser.getBody(), equalTo("second"));
+        assertThat(otherQuery.getBody(), equalTo("third"));
+        assertThat(sent, hasSize(3));
+    }
+
+    @Test
+    void get_whenStaleWithETag_thenRevalidateAndKeepCached() {
+        get(URI, 1L, ok("first", "no-cache"));
+        ResponseEntity<Object> response = get(URI, 1L, Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(1)))
+                .build()));
+        ResponseEntity<Object> again = get(URI, 1L, ok("second", null));
+
+        assertThat(response.getBody(), equalTo("first"));
+        assertThat(again.getBody(), equalTo("first"));
+        assertThat(sent, hasSize(2));
+        assertThat(sent.get(1).getIfNoneMatch(), contains("\"first\""));
+        assertThat(requests("revalidated"), equalTo(1.0));
+    }
+
+    @Test
+    void get_whenNoStore_thenSendEachTime() {
+        get(URI, 1L, ok("first", "no-store"));
+        ResponseEntity<Object> response = get(URI, 1L, ok("second", "no-store"));
+
+        assertThat(response.getBody(), equalTo("second"));
+        assertThat(sent, hasSize(2));
+        assertThat(sent.get(1).getIfNoneMatch(), hasSize(0));
+    }
+
+    @Test
+    void get_whenError_thenDropCached() {
+        get(URI, 1L, ok("first", "no-cache"));
+        get(URI, 1L, Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).body("gone")));
+        get(URI, 1L, ok("second", null));
+
+        assertThat(sent.get(2).getIfNoneMatch(), hasSize(0));
+    }
+
+    @Test
+    void evict_thenSendAgainOnlyForThatResource() {
+        get(URI, 1L, ok("first", null));
+        get("/items/2", 1L, ok("other", null));
+
+        cache.evict(RESOURCE);
+        ResponseEntity<Object> response = get(URI, 1L, ok("second", null));
+        ResponseEntity<Object> other = get("/items/2", 1L, ok("changed", null));
+
+        assertThat(response.getBody(), equalTo("second"));
+        assertThat(other.getBody(), equalTo("other"));
+        assertThat(sent, hasSize(3));
+    }
+
+    @Test
+    void evictUnder_thenSendAgainForResourcesUnderPrefix() {
+        get(URI, 1L, ok("first", null));
+        get("/items/search?text=drill", null, ok("found", null));
+        get("/users/1", null, ok("user", null));
+
+        cache.evictUnder("/items/");
+        ResponseEntity<Object> item = get(URI, 1L, ok("second", null));
+        ResponseEntity<Object> search = get("/items/search?text=drill", null, ok("found again", null));
+        ResponseEntity<Object> user = get("/users/1", null, ok("changed", null));
+
+        assertThat(item.getBody(), equalTo("second"));
+        assertThat(search.getBody(), equalTo("found again"));
+        assertThat(user.getBody(), equalTo("user"));
+        assertThat(sent, hasSize(5));
+    }
+
+    @Test
+    void evict_whenResponseOnItsWay_thenDoNotStoreIt() {
+        Sinks.One<ResponseEntity<Object>> inFlight = Sinks.one();
+        Mono<ResponseEntity<Object>> pending = cache.get(RESOURCE, URI, 1L, validators -> {
+            sent.add(validators);
+            return inFlight.asMono();
+        }).cache();
+        pending.subscribe();
+
+        cache.evict(RESOURCE);
+        inFlight.tryEmitValue(ok("before the change", null).block());
+        ResponseEntity<Object> response = get(URI, 1L, ok("after the change", null));
+
+        assertThat(pending.block().getBody(), equalTo("before the change"));
+        assertThat(response.getBody(), equalTo("after the change"));
+        assertThat(sent, hasSize(2));
+    }
+
+    @Test
+    void get_whenTurnedOff_thenAlwaysSend() {
+        ServerClientProperties.Cache properties = new ServerClientProperties.Cache();
+        properties.setMaxEntries(0);
+        ServerResponseCache off = new ServerResponseCache(properties, registry);
+
+        off.get(RESOURCE, URI, 1L, validators -> ok("first", null)).block();
+        ResponseEntity<Object> response = off.get(RESOURCE, URI, 1L, validators -> ok("second", null)).block();
+
+        assertThat(response.getBody(), equalTo("second"));
+    }
+
+    private ResponseEntity<Object> get(String uri, Long userId, Mono<ResponseEntity<Object>> response) {
+        int query = uri.indexOf('?');
+        return cache.get(query < 0 ? uri : uri.substring(0, query), uri, userId, validators -> {
+            sent.add(validators);
+            return response;
+        }).block();
+    }
+
+    private double requests(String result) {
+        return registry.get("shareit-server.responses.requests").tag("result", result).counter().count();
+    }
+
+    private static Mono<ResponseEntity<Object>> ok(Object body, String cacheControl) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"" + body + "\"");
+        if (cacheControl != null) {
+            headers.setCacheControl(cacheControl);
+        }
+        return Mono.just(new ResponseEntity<>(body, headers, HttpStatus.OK));
+    }
+}
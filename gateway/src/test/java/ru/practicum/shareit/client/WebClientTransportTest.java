@@ -0,0 +1,76 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.nullValue;
+
+public class WebClientTransportTest {
+    @Test
+    void exchange_whenOk_thenPassHeadersAndBody() {
+        ResponseEntity<Object> response = exchange(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header("X-Next-Cursor", "cursor")
+                .header(HttpHeaders.ETAG, "\"1\"")
+                .header(HttpHeaders.CACHE_CONTROL, "max-age=5")
+                .header(HttpHeaders.TRANSFER_ENCODING, "chunked")
+                .header(HttpHeaders.CONTENT_LENGTH, "8")
+                .body("{\"id\":1}")
+                .build());
+
+        assertThat(response.getStatusCode(), equalTo(HttpStatus.OK));
+        assertThat(response.getHeaders().getFirst("X-Next-Cursor"), equalTo("cursor"));
+        assertThat(response.getHeaders().getETag(), equalTo("\"1\""));
+        assertThat(response.getHeaders().getCacheControl(), equalTo("max-age=5"));
+        assertThat(response.getHeaders().containsKey(HttpHeaders.TRANSFER_ENCODING), equalTo(false));
+        assertThat(response.getHeaders().containsKey(HttpHeaders.CONTENT_LENGTH), equalTo(false));
+        assertThat(((Map<?, ?>) response.getBody()).get("id"), equalTo(1));
+    }
+
+    @Test
+    void exchange_whenNotModified_thenPassHeadersWithoutBody() {
+        ResponseEntity<Object> response = exchange(ClientResponse.create(HttpStatus.NOT_MODIFIED)
+                .header(HttpHeaders.ETAG, "\"1\"")
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .build());
+
+        assertThat(response.getStatusCode(), equalTo(HttpStatus.NOT_MODIFIED));
+        assertThat(response.getHeaders().getETag(), equalTo("\"1\""));
+        assertThat(response.getHeaders().getCacheControl(), equalTo("no-cache"));
+        assertThat(response.getBody(), nullValue());
+    }
+
+    @Test
+    void exchange_whenError_thenPassRawBodyAndHeaders() {
+        ResponseEntity<Object> response = exchange(ClientResponse.create(HttpStatus.NOT_FOUND)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body("{\"error\":\"not found\"}")
+                .build());
+
+        assertThat(response.getStatusCode(), equalTo(HttpStatus.NOT_FOUND));
+        assertThat(response.getHeaders().getContentType(), equalTo(MediaType.APPLICATION_JSON));
+        assertThat(response.getBody(), instanceOf(byte[].class));
+        assertThat(new String((byte[]) response.getBody()), equalTo("{\"error\":\"not found\"}"));
+    }
+
+    private static ResponseEntity<Object> exchange(ClientResponse serverResponse) {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> Mono.just(serverResponse))
+                .build();
+        return new WebClientTransport(webClient)
+                .exchange(HttpMethod.GET, "http://server/items/1", new HttpHeaders(), null, null)
+                .block();
+    }
+}
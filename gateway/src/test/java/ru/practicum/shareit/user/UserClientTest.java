@@ -0,0 +1,48 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.ServerClientProperties;
+import ru.practicum.shareit.client.ServerResponseCache;
+import ru.practicum.shareit.client.ServerTransport;
+import ru.practicum.shareit.item.ItemClient;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class UserClientTest {
+    private final AtomicReference<String> authorName = new AtomicReference<>("name");
+    private final ServerTransport transport = (method, path, headers, parameters, body) -> {
+        if (method == HttpMethod.PATCH) {
+            authorName.set(((UserDto) body).getName());
+            return Mono.just(ResponseEntity.ok(Map.of("id", 2, "name", authorName.get())));
+        }
+        return Mono.just(ResponseEntity.ok(Map.of("id", 1, "comments", List.of(Map.of("authorName", authorName.get())))));
+    };
+    private final ServerResponseCache cache = new ServerResponseCache(new ServerClientProperties.Cache(),
+            new SimpleMeterRegistry());
+    private final UserClient userClient = new UserClient(transport, cache);
+    private final ItemClient itemClient = new ItemClient(transport, cache);
+
+    @Test
+    void updateUser_thenReadItemsWithNewName() {
+        assertThat(authorName(itemClient.getItem(1L, 1L).block()), equalTo("name"));
+
+        userClient.updateUser(2L, UserDto.builder().name("renamed").build()).block();
+
+        assertThat(authorName(itemClient.getItem(1L, 1L).block()), equalTo("renamed"));
+    }
+
+    private static Object authorName(ResponseEntity<Object> item) {
+        List<?> comments = (List<?>) ((Map<?, ?>) item.getBody()).get("comments");
+        return ((Map<?, ?>) comments.get(0)).get("authorName");
+    }
+}
@@ -0,0 +1,267 @@
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fills the ShareIt PostgreSQL database (tables of the server's Flyway migrations) with a synthetic dataset
+ * through COPY. The same arguments and seed give the same rows; times are relative to the hour of the run,
+ * so past, current and future bookings keep their shares.
+ *
+ * <pre>java -cp postgresql.jar load/DatasetGenerator.java 10000 5 200000 42</pre>
+ * Arguments: users, items per owner, bookings, seed. Every {@value #OWNER_EVERY}th user (ids 1, 6, 11, ...)
+ * owns items, a quarter of the users have a request and a third of the items answer one. Bookings are spread
+ * over {@value #PAST_DAYS} days back and {@value #FUTURE_DAYS} ahead without overlaps per item; past ones are
+ * mostly approved and some get a comment, future ones are waiting or approved. The database comes from
+ * SPRING_DATASOURCE_URL, SPRING_DATASOURCE_USERNAME and SPRING_DATASOURCE_PASSWORD (defaults as in the
+ * server's application.properties). Tables must be empty unless -Dtruncate=true is given. Run it before the
+ * server takes traffic: the server caches entities and id blocks.
+ */
+public class DatasetGenerator {
+    static final int OWNER_EVERY = 5;
+    static final int PAST_DAYS = 180;
+    static final int FUTURE_DAYS = 60;
+    private static final double REQUESTS_PER_USER = 0.25;
+    private static final double ITEMS_FOR_REQUEST = 0.3;
+    private static final double ITEMS_AVAILABLE = 0.9;
+    private static final double COMMENTED_BOOKINGS = 0.3;
+    private static final String[] THINGS = {"drill", "saw", "ladder", "tent", "bike", "kayak", "camera",
+            "projector", "grill", "sander", "stroller", "snowboard", "guitar", "telescope", "vacuum cleaner"};
+    private static final String[] TRAITS = {"cordless", "folding", "compact", "professional", "lightweight",
+            "heavy duty", "electric", "vintage", "brand new", "old but reliable"};
+    private static final String[] TABLES = {"users", "requests", "items", "bookings", "comments"};
+
+    private final Random random;
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+
+    private DatasetGenerator(long seed) {
+        random = new Random(seed);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int itemsPerOwner = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int bookings = args.length > 2 ? Integer.parseInt(args[2]) : 200_000;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+
+        String url = System.getenv().getOrDefault("SPRING_DATASOURCE_URL", "jdbc:postgresql://localhost:5432/shareit");
+        try (Connection connection = DriverManager.getConnection(url,
+                System.getenv().getOrDefault("SPRING_DATASOURCE_USERNAME", "root"),
+                System.getenv().getOrDefault("SPRING_DATASOURCE_PASSWORD", "root"))) {
+            connection.setAutoCommit(false);
+            long started = System.nanoTime();
+            new DatasetGenerator(seed).generate(connection, users, itemsPerOwner, bookings);
+            connection.commit();
+            try (Statement statement = connection.createStatement()) {
+                connection.setAutoCommit(true);
+                statement.execute("ANALYZE");
+            }
+            System.out.printf("loaded in %.1fs; run the load with -Dusers=%d -DownerEvery=%d -Ditems=%d%n",
+                    (System.nanoTime() - started) / 1e9, users, OWNER_EVERY, owners(users) * itemsPerOwner);
+        }
+    }
+
+    private void generate(Connection connection, int users, int itemsPerOwner, int bookings) throws SQLException {
+        prepare(connection);
+        CopyManager copy = connection.unwrap(PGConnection.class).getCopyAPI();
+
+        try (Rows rows = new Rows(copy, "users", "id, name, email")) {
+            for (long id = 1; id <= users; id++) {
+                rows.add(id, "user " + id, "user" + id + "@load.test");
+            }
+        }
+
+        int requests = (int) (users * REQUESTS_PER_USER);
+        try (Rows rows = new Rows(copy, "requests", "id, description, requestor_id, created")) {
+            for (long id = 1; id <= requests; id++) {
+                rows.add(id, "looking for a " + pick(TRAITS) + " " + pick(THINGS), 1 + random.nextInt(users),
+                        now.minusMinutes(random.nextInt(90 * 24 * 60)));
+            }
+        }
+
+        int items = owners(users) * itemsPerOwner;
+        long[] ownerOfItem = new long[items + 1];
+        try (Rows rows = new Rows(copy, "items", "id, name, description, is_available, owner_id, request_id")) {
+            for (int id = 1; id <= items; id++) {
+                ownerOfItem[id] = 1 + (long) ((id - 1) / itemsPerOwner) * OWNER_EVERY;
+                String thing = pick(THINGS);
+                rows.add(id, pick(TRAITS) + " " + thing, "a " + thing + " in good shape, item " + id,
+                        random.nextDouble() < ITEMS_AVAILABLE,
+                        ownerOfItem[id],
+                        requests > 0 && random.nextDouble() < ITEMS_FOR_REQUEST ? 1 + random.nextInt(requests) : null);
+            }
+        }
+
+        int[] bookingsOfItem = new int[items + 1];
+        for (int i = 0; i < bookings && items > 0; i++) {
+            bookingsOfItem[1 + random.nextInt(items)]++;
+        }
+        List<Object[]> comments = new ArrayList<>();
+        long bookingId = 0;
+        try (Rows rows = new Rows(copy, "bookings", "id, start_date, end_date, item_id, booker_id, status")) {
+            for (int item = 1; item <= items; item++) {
+                LocalDateTime cursor = now.minusDays(PAST_DAYS);
+                for (int left = bookingsOfItem[item]; left > 0; left--) {
+                    // the rest of the window split evenly between the bookings still to place, each somewhere in its slot
+                    long slot = ChronoUnit.MINUTES.between(cursor, now.plusDays(FUTURE_DAYS)) / left;
+                    long duration = Math.max(1, Math.min(slot * 4 / 5, durationMinutes()));
+                    LocalDateTime start = cursor.plusMinutes((long) (random.nextDouble() * (slot - duration)));
+                    LocalDateTime end = start.plusMinutes(duration);
+                    cursor = end;
+
+                    long booker = booker(users, ownerOfItem[item]);
+                    String status = status(start, end);
+                    rows.add(++bookingId, start, end, item, booker, status);
+                    LocalDateTime commented = end.plusMinutes(60 + random.nextInt(72 * 60));
+                    if ("APPROVED".equals(status) && commented.isBefore(now) && random.nextDouble() < COMMENTED_BOOKINGS) {
+                        comments.add(new Object[]{comments.size() + 1L, comment(), item, booker, commented});
+                    }
+                }
+            }
+        }
+
+        try (Rows rows = new Rows(copy, "comments", "id, text, item_id, author_id, created")) {
+            for (Object[] comment : comments) {
+                rows.add(comment);
+            }
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            for (String table : TABLES) {
+                statement.execute("SELECT setval('" + table + "_id_seq', "
+                        + "(SELECT COALESCE(MAX(id), 0) + 1 FROM " + table + "), false)");
+            }
+            // COPY left every booking FUTURE, the V8 migration stamps existing ones the same way
+            statement.execute("UPDATE bookings SET phase = CASE WHEN end_date < LOCALTIMESTAMP THEN 'PAST' "
+                    + "WHEN start_date < LOCALTIMESTAMP THEN 'CURRENT' ELSE 'FUTURE' END");
+            // the server keeps the summaries from here on, as the V7 migration does for existing items
+            statement.execute("INSERT INTO item_booking_summary (item_id, last_booking_id, last_booker_id, "
+                    + "last_start, last_end, next_booking_id, next_booker_id, next_start, next_end) "
+                    + "SELECT i.id, l.id, l.booker_id, l.start_date, l.end_date, "
+                    + "n.id, n.booker_id, n.start_date, n.end_date FROM items i "
+                    + "LEFT JOIN bookings l ON l.id = (SELECT b.id FROM bookings b WHERE b.item_id = i.id "
+                    + "AND b.status <> 'REJECTED' AND b.start_date < LOCALTIMESTAMP "
+                    + "ORDER BY b.start_date DESC, b.id LIMIT 1) "
+                    + "LEFT JOIN bookings n ON n.id = (SELECT b.id FROM bookings b WHERE b.item_id = i.id "
+                    + "AND b.status <> 'REJECTED' AND b.start_date > LOCALTIMESTAMP "
+                    + "ORDER BY b.start_date, b.id LIMIT 1)");
+        }
+        System.out.printf("users=%d requests=%d items=%d bookings=%d comments=%d%n",
+                users, requests, items, bookingId, comments.size());
+    }
+
+    private static void prepare(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            if (Boolean.getBoolean("truncate")) {
+                statement.execute("TRUNCATE " + String.join(", ", TABLES) + " CASCADE");
+                return;
+            }
+            for (String table : TABLES) {
+                try (ResultSet rs = statement.executeQuery("SELECT EXISTS (SELECT 1 FROM " + table + ")")) {
+                    rs.next();
+                    if (rs.getBoolean(1)) {
+                        throw new IllegalStateException(table + " is not empty, pass -Dtruncate=true to replace the data");
+                    }
+                }
+            }
+        }
+    }
+
+    private static int owners(int users) {
+        return (users + OWNER_EVERY - 1) / OWNER_EVERY;
+    }
+
+    /**
+     * Mostly a few hours to a couple of days, sometimes a week or two.
+     */
+    private long durationMinutes() {
+        return 60 + (long) (Math.exp(random.nextGaussian() * 1.2 + 7.5));
+    }
+
+    private long booker(int users, long owner) {
+        if (users == 1) {
+            throw new IllegalStateException("bookings need a second user besides the owner");
+        }
+        long booker;
+        do {
+            booker = 1 + random.nextInt(users);
+        } while (booker == owner);
+        return booker;
+    }
+
+    private String status(LocalDateTime start, LocalDateTime end) {
+        double r = random.nextDouble();
+        if (!end.isAfter(now)) {
+            return r < 0.8 ? "APPROVED" : r < 0.92 ? "REJECTED" : "CANCELLED";
+        }
+        if (!start.isAfter(now)) {
+            return r < 0.95 ? "APPROVED" : "CANCELLED";
+        }
+        return r < 0.45 ? "WAITING" : r < 0.9 ? "APPROVED" : "REJECTED";
+    }
+
+    private String comment() {
+        String[] texts = {"worked perfectly", "a bit worn but did the job", "owner was very helpful",
+                "exactly as described", "would rent again"};
+        return texts[random.nextInt(texts.length)];
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    /**
+     * CSV rows of one COPY, sent in chunks.
+     */
+    private static final class Rows implements AutoCloseable {
+        private static final int CHUNK = 1 << 16;
+
+        private final CopyIn copyIn;
+        private final StringBuilder buffer = new StringBuilder(CHUNK * 2);
+
+        Rows(CopyManager copy, String table, String columns) throws SQLException {
+            copyIn = copy.copyIn("COPY " + table + " (" + columns + ") FROM STDIN (FORMAT csv)");
+        }
+
+        void add(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    buffer.append(',');
+                }
+                Object value = values[i];
+                if (value instanceof String) {
+                    buffer.append('"').append(((String) value).replace("\"", "\"\"")).append('"');
+                } else if (value != null) {
+                    buffer.append(value);
+                }
+            }
+            buffer.append('\n');
+            if (buffer.length() >= CHUNK) {
+                flush();
+            }
+        }
+
+        private void flush() throws SQLException {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+
+        @Override
+        public void close() throws SQLException {
+            flush();
+            copyIn.endCopy();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop load: every worker sends GET requests back to back, cycling through the paths,
+ * first for the warm-up period (not measured) and then for the measured one. Prints throughput and
+ * latency percentiles per path and in total.
+ *
+ * <pre>java -Dusers=10000 -DownerEvery=5 -Ditems=10000 load/HttpLoad.java http://localhost:8080 400 10 30 \
+ *     owner:/items /items/{item} /bookings?state=PAST</pre>
+ * Arguments: base url, workers, warm-up seconds, measured seconds, paths. X-Sharer-User-Id is a random user
+ * from 1 to -Dusers (default 1); paths prefixed with owner: go as a random owner, one of every -DownerEvery
+ * users starting from 1, which is how load/DatasetGenerator.java hands out items. {item} in a path becomes
+ * a random item id from 1 to -Ditems.
+ */
+public class HttpLoad {
+    private static final String OWNER = "owner:";
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args[0];
+        int workers = Integer.parseInt(args[1]);
+        int warmUpSeconds = Integer.parseInt(args[2]);
+        int seconds = Integer.parseInt(args[3]);
+        List<String> paths = List.of(args).subList(4, args.length);
+        Target target = new Target(baseUrl, Integer.getInteger("users", 1), Integer.getInteger("ownerEvery", 1),
+                Integer.getInteger("items", 1));
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        run(client, pool, target, paths, workers, warmUpSeconds);
+        Result[] results = run(client, pool, target, paths, workers, seconds);
+        pool.shutdownNow();
+
+        int width = paths.stream().mapToInt(String::length).max().orElse(0);
+        Result total = new Result();
+        for (int i = 0; i < paths.size(); i++) {
+            print(paths.get(i), width, results[i], seconds);
+            total.add(results[i]);
+        }
+        print("total", width, total, seconds);
+    }
+
+    private static Result[] run(HttpClient client, ExecutorService pool, Target target, List<String> paths,
+                                int workers, int seconds) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Future<Result[]>> futures = new ArrayList<>();
+        for (int w = 0; w < workers; w++) {
+            int offset = w;
+            futures.add(pool.submit(() -> {
+                Result[] results = newResults(paths.size());
+                for (int i = offset; System.nanoTime() < deadline; i++) {
+                    int path = i % paths.size();
+                    HttpRequest request = target.request(paths.get(path));
+                    long start = System.nanoTime();
+                    try {
+                        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        if (status >= 400) {
+                            results[path].errors++;
+                        }
+                    } catch (Exception e) {
+                        results[path].errors++;
+                    }
+                    results[path].latencies.add(System.nanoTime() - start);
+                }
+                return results;
+            }));
+        }
+        Result[] total = newResults(paths.size());
+        for (Future<Result[]> future : futures) {
+            Result[] results = future.get();
+            for (int i = 0; i < total.length; i++) {
+                total[i].add(results[i]);
+            }
+        }
+        return total;
+    }
+
+    private static void print(String name, int width, Result result, int seconds) {
+        long[] latencies = result.latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        System.out.printf("%-" + width + "s requests=%d errors=%d throughput=%.1f/s p50=%.1fms p90=%.1fms "
+                        + "p99=%.1fms max=%.1fms%n",
+                name,
+                latencies.length,
+                result.errors,
+                latencies.length / (double) seconds,
+                percentile(latencies, 0.50),
+                percentile(latencies, 0.90),
+                percentile(latencies, 0.99),
+                latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+
+    private static Result[] newResults(int size) {
+        Result[] results = new Result[size];
+        for (int i = 0; i < size; i++) {
+            results[i] = new Result();
+        }
+        return results;
+    }
+
+    private static class Target {
+        final String baseUrl;
+        final int users;
+        final int ownerEvery;
+        final int items;
+
+        Target(String baseUrl, int users, int ownerEvery, int items) {
+            this.baseUrl = baseUrl;
+            this.users = users;
+            this.ownerEvery = ownerEvery;
+            this.items = items;
+        }
+
+        HttpRequest request(String path) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long user;
+            if (path.startsWith(OWNER)) {
+                path = path.substring(OWNER.length());
+                user = 1 + (long) random.nextInt((users + ownerEvery - 1) / ownerEvery) * ownerEvery;
+            } else {
+                user = 1 + random.nextInt(users);
+            }
+            path = path.replace("{item}", String.valueOf(1 + random.nextInt(items)));
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("X-Sharer-User-Id", String.valueOf(user))
+                    .build();
+        }
+    }
+
+    private static class Result {
+        final List<Long> latencies = new ArrayList<>();
+        long errors;
+
+        void add(Result other) {
+            latencies.addAll(other.latencies);
+            errors += other.errors;
+        }
+    }
+}
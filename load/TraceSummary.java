@@ -0,0 +1,174 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits the time of traced requests into gateway, transport, server and database, from the span files that
+ * gateway and server write with shareit.tracing.file (FileSpanExporter, one JSON object per line).
+ *
+ * <pre>java load/TraceSummary.java target/spans-gateway.jsonl target/spans-server.jsonl</pre>
+ * Per gateway route, mean milliseconds of: total (gateway server span); gateway (total less its calls to the
+ * server); transport (the calls less the server spans: network, connection pool, serialization); server (server
+ * span less its service methods: Tomcat, filters, controllers, JSON); service (service methods less their
+ * statements); db (JDBC statements). Then the statements by total time.
+ */
+public class TraceSummary {
+    private static final Pattern FIELD = Pattern.compile("\"(\\w+)\":(\"((?:[^\"\\\\]|\\\\.)*)\"|-?\\d+|null)");
+    private static final Pattern STATEMENT = Pattern.compile("\"db\\.statement\":\"((?:[^\"\\\\]|\\\\.)*)\"");
+    private static final String[] PARTS = {"total", "gateway", "transport", "server", "service", "db"};
+    private static final int TOP_STATEMENTS = 15;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, List<Span>> traces = new HashMap<>();
+        for (String file : args) {
+            for (String line : Files.readAllLines(Path.of(file))) {
+                if (!line.isBlank()) {
+                    Span span = Span.parse(line);
+                    traces.computeIfAbsent(span.traceId, id -> new ArrayList<>()).add(span);
+                }
+            }
+        }
+
+        Map<String, Route> routes = new TreeMap<>();
+        Map<String, long[]> statements = new HashMap<>();
+        for (List<Span> spans : traces.values()) {
+            Map<String, List<Span>> children = new HashMap<>();
+            for (Span span : spans) {
+                if (span.parentSpanId != null) {
+                    children.computeIfAbsent(span.parentSpanId, id -> new ArrayList<>()).add(span);
+                }
+                if (span.statement != null) {
+                    long[] total = statements.computeIfAbsent(span.statement, s -> new long[2]);
+                    total[0]++;
+                    total[1] += span.durationMicros;
+                }
+            }
+            for (Span root : spans) {
+                if (root.parentSpanId == null && "SERVER".equals(root.kind) && root.service.endsWith("gateway")) {
+                    routes.computeIfAbsent(root.name, name -> new Route()).add(split(root, children));
+                }
+            }
+        }
+
+        int width = routes.keySet().stream().mapToInt(String::length).max().orElse(5);
+        System.out.printf("%-" + width + "s %7s", "route", "count");
+        for (String part : PARTS) {
+            System.out.printf(" %9s", part);
+        }
+        System.out.println();
+        routes.forEach((name, route) -> {
+            System.out.printf("%-" + width + "s %7d", name, route.count);
+            for (long micros : route.micros) {
+                System.out.printf(" %9.2f", micros / 1000.0 / route.count);
+            }
+            System.out.println();
+        });
+
+        System.out.printf("%n%7s %10s %9s  statement%n", "count", "total ms", "mean ms");
+        statements.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue()[1], a.getValue()[1]))
+                .limit(TOP_STATEMENTS)
+                .forEach(e -> System.out.printf("%7d %10.1f %9.2f  %s%n", e.getValue()[0], e.getValue()[1] / 1000.0,
+                        e.getValue()[1] / 1000.0 / e.getValue()[0], e.getKey()));
+    }
+
+    /**
+     * Microseconds of {@link #PARTS} for the trace under a gateway request.
+     */
+    private static long[] split(Span root, Map<String, List<Span>> children) {
+        long calls = 0;
+        long server = 0;
+        long service = 0;
+        long db = 0;
+        for (Span call : children.getOrDefault(root.spanId, List.of())) {
+            if (!"CLIENT".equals(call.kind)) {
+                continue;
+            }
+            calls += call.durationMicros;
+            for (Span request : children.getOrDefault(call.spanId, List.of())) {
+                server += request.durationMicros;
+                for (Span method : children.getOrDefault(request.spanId, List.of())) {
+                    service += method.durationMicros;
+                    db += statements(method, children);
+                }
+            }
+        }
+        return new long[]{root.durationMicros, root.durationMicros - calls, calls - server, server - service,
+                service - db, db};
+    }
+
+    private static long statements(Span span, Map<String, List<Span>> children) {
+        long micros = 0;
+        for (Span child : children.getOrDefault(span.spanId, List.of())) {
+            micros += child.statement != null ? child.durationMicros : statements(child, children);
+        }
+        return micros;
+    }
+
+    private static class Route {
+        final long[] micros = new long[PARTS.length];
+        long count;
+
+        void add(long[] split) {
+            for (int i = 0; i < micros.length; i++) {
+                micros[i] += split[i];
+            }
+            count++;
+        }
+    }
+
+    private static class Span {
+        String service;
+        String traceId;
+        String spanId;
+        String parentSpanId;
+        String name;
+        String kind;
+        long durationMicros;
+        String statement;
+
+        static Span parse(String line) {
+            Span span = new Span();
+            Matcher field = FIELD.matcher(line);
+            while (field.find()) {
+                String text = field.group(3);
+                switch (field.group(1)) {
+                    case "service":
+                        span.service = text;
+                        break;
+                    case "traceId":
+                        span.traceId = text;
+                        break;
+                    case "spanId":
+                        span.spanId = text;
+                        break;
+                    case "parentSpanId":
+                        span.parentSpanId = text;
+                        break;
+                    case "name":
+                        span.name = text;
+                        break;
+                    case "kind":
+                        span.kind = text;
+                        break;
+                    case "durationMicros":
+                        span.durationMicros = Long.parseLong(field.group(2));
+                        break;
+                    default:
+                        break;
+                }
+            }
+            Matcher statement = STATEMENT.matcher(line);
+            if (statement.find()) {
+                span.statement = statement.group(1).replace("\\\"", "\"");
+            }
+            return span;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+#!/usr/bin/env bash
+# Runs the same load against server and gateway on platform threads and then on virtual threads
+# and prints throughput and latency percentiles for both.
+#
+# Needs Java 21+ and the jars (mvn -B -DskipTests package). The server uses in-memory H2 unless
+# SPRING_DATASOURCE_URL, SPRING_DATASOURCE_USERNAME and SPRING_DATASOURCE_PASSWORD point it at PostgreSQL.
+# WORKERS, WARMUP and DURATION (seconds) tune the load.
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+WORKERS=${WORKERS:-400}
+WARMUP=${WARMUP:-10}
+DURATION=${DURATION:-30}
+GATEWAY=http://localhost:8080
+SERVER=http://localhost:9090
+SERVER_PROFILE=${SPRING_DATASOURCE_URL:+default}
+SERVER_PROFILE=${SERVER_PROFILE:-ci}
+
+java_major=$(java -XshowSettings:properties -version 2>&1 | sed -n 's/ *java.specification.version = //p')
+if [ "${java_major%%.*}" -lt 21 ]; then
+  echo "virtual threads need Java 21 or later, found $java_major" >&2
+  exit 1
+fi
+
+pids=()
+stop() {
+  if [ ${#pids[@]} -gt 0 ]; then
+    kill "${pids[@]}" 2>/dev/null || true
+    wait "${pids[@]}" 2>/dev/null || true
+  fi
+  pids=()
+}
+trap stop EXIT
+
+wait_up() {
+  for _ in $(seq 120); do
+    curl -sf "$1/actuator/health" > /dev/null && return
+    sleep 1
+  done
+  echo "$1 did not start" >&2
+  exit 1
+}
+
+seed() {
+  curl -sf -XPOST "$GATEWAY/users" -H 'Content-Type: application/json' \
+    -d '{"name":"owner","email":"owner@load.test"}' > /dev/null
+  for i in $(seq 20); do
+    curl -sf -XPOST "$GATEWAY/items" -H 'Content-Type: application/json' -H 'X-Sharer-User-Id: 1' \
+      -d "{\"name\":\"item $i\",\"description\":\"load item $i\",\"available\":true}" > /dev/null
+  done
+}
+
+run_mode() {
+  local name=$1 profile=$2
+  java -jar server/target/shareit-server-*.jar --spring.profiles.active="$SERVER_PROFILE${profile:+,$profile}" \
+    > "target/load-server-$name.log" 2>&1 &
+  pids+=($!)
+  java -jar gateway/target/shareit-gateway-*.jar ${profile:+--spring.profiles.active=$profile} \
+    > "target/load-gateway-$name.log" 2>&1 &
+  pids+=($!)
+  wait_up "$SERVER"
+  wait_up "$GATEWAY"
+  seed
+  echo "== $name"
+  java load/HttpLoad.java "$GATEWAY" "$WORKERS" "$WARMUP" "$DURATION" \
+    /items /items/1 /items/search?text=load /bookings/owner /requests/all
+  stop
+}
+
+mkdir -p target
+run_mode platform ""
+run_mode virtual virtual-threads
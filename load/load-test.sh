@@ -0,0 +1,80 @@
+#!/usr/bin/env bash
+# Loads a synthetic dataset into PostgreSQL (load/DatasetGenerator.java), starts server and gateway
+# and runs a mix of read requests through the gateway (load/HttpLoad.java), printing throughput and
+# latency percentiles per endpoint.
+#
+# Needs PostgreSQL and the jars (mvn -B -DskipTests package). The database comes from
+# SPRING_DATASOURCE_URL, SPRING_DATASOURCE_USERNAME and SPRING_DATASOURCE_PASSWORD, defaults as in the
+# server's application.properties; its data is replaced. USERS, ITEMS_PER_OWNER, BOOKINGS and SEED
+# shape the dataset, GENERATE=false keeps the data of the previous run. WORKERS, WARMUP and
+# DURATION (seconds) tune the load. TRACE=true records the spans of a TRACE_SAMPLE_RATE share of
+# the requests and splits their time into gateway, server and database (load/TraceSummary.java).
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+USERS=${USERS:-10000}
+ITEMS_PER_OWNER=${ITEMS_PER_OWNER:-5}
+BOOKINGS=${BOOKINGS:-200000}
+SEED=${SEED:-42}
+GENERATE=${GENERATE:-true}
+WORKERS=${WORKERS:-100}
+WARMUP=${WARMUP:-10}
+DURATION=${DURATION:-30}
+TRACE=${TRACE:-false}
+TRACE_SAMPLE_RATE=${TRACE_SAMPLE_RATE:-0.1}
+GATEWAY=http://localhost:8080
+SERVER=http://localhost:9090
+OWNER_EVERY=5
+
+pids=()
+stop() {
+  if [ ${#pids[@]} -gt 0 ]; then
+    kill "${pids[@]}" 2>/dev/null || true
+    wait "${pids[@]}" 2>/dev/null || true
+  fi
+}
+trap stop EXIT
+
+wait_up() {
+  for _ in $(seq 120); do
+    curl -sf "$1/actuator/health" > /dev/null && return
+    sleep 1
+  done
+  echo "$1 did not start" >&2
+  exit 1
+}
+
+mkdir -p target
+server_args=(--shareit.tracing.sample-rate=0)
+gateway_args=(--shareit.tracing.sample-rate=0)
+if [ "$TRACE" = true ]; then
+  rm -f target/spans-server.jsonl target/spans-gateway.jsonl
+  server_args=(--shareit.tracing.file=target/spans-server.jsonl)
+  gateway_args=(--shareit.tracing.file=target/spans-gateway.jsonl --shareit.tracing.sample-rate="$TRACE_SAMPLE_RATE")
+fi
+mvn -B -q -pl server dependency:build-classpath -DincludeArtifactIds=postgresql \
+  -Dmdep.outputFile="$PWD/target/load-pgjdbc.classpath"
+
+# the server creates the tables, the data goes in before it takes any request
+java -jar server/target/shareit-server-*.jar "${server_args[@]}" > target/load-server.log 2>&1 &
+pids+=($!)
+wait_up "$SERVER"
+if [ "$GENERATE" = true ]; then
+  java -Dtruncate=true -cp "$(cat target/load-pgjdbc.classpath)" load/DatasetGenerator.java \
+    "$USERS" "$ITEMS_PER_OWNER" "$BOOKINGS" "$SEED"
+fi
+java -jar gateway/target/shareit-gateway-*.jar "${gateway_args[@]}" > target/load-gateway.log 2>&1 &
+pids+=($!)
+wait_up "$GATEWAY"
+
+java -Dusers="$USERS" -DownerEvery="$OWNER_EVERY" -Ditems=$(( (USERS + OWNER_EVERY - 1) / OWNER_EVERY * ITEMS_PER_OWNER )) \
+  load/HttpLoad.java "$GATEWAY" "$WORKERS" "$WARMUP" "$DURATION" \
+  owner:/items /items/{item} /items/search?text=drill /items/search?text=camera \
+  /bookings?state=ALL /bookings?state=CURRENT /bookings?state=PAST /bookings?state=FUTURE /bookings?state=WAITING \
+  owner:/bookings/owner?state=ALL owner:/bookings/owner?state=WAITING /requests/all
+
+if [ "$TRACE" = true ]; then
+  stop
+  echo
+  java load/TraceSummary.java target/spans-gateway.jsonl target/spans-server.jsonl
+fi
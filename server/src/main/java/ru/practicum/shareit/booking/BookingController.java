@@ -2,10 +2,15 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
+import ru.practicum.shareit.param.PageCursor;
 import ru.practicum.shareit.param.PaginationRequest;
 
+import javax.servlet.http.HttpServletResponse;
 import java.util.List;
 
 
@@ -21,6 +26,18 @@ public class BookingController {
         return bookingService.addBooking(dto, userId);
     }
 
+    @PostMapping("/batch")
+    List<BookingBatchResultDto> addBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                                            @RequestBody List<BookingCreateDto> dtos) {
+        return bookingService.addBookings(dtos, userId);
+    }
+
+    @PatchMapping("/status")
+    List<BookingBatchResultDto> changeBookingStatuses(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                      @RequestBody List<BookingStatusUpdateDto> updates) {
+        return bookingService.finalizeBookingStatuses(updates, userId);
+    }
+
     @PatchMapping("/{bookingId}")
     BookingDto changeBookingStatus(@RequestHeader("X-Sharer-User-Id") long userId,
                                    @PathVariable long bookingId,
@@ -30,7 +47,11 @@ public class BookingController {
 
     @GetMapping("/{bookingId}")
     BookingDto getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
-                          @PathVariable long bookingId) {
+                          @PathVariable long bookingId,
+                          WebRequest request) {
+        if (request.checkNotModified(bookingService.getBookingETag(bookingId, userId))) {
+            return null;
+        }
         return bookingService.getBookingById(bookingId, userId);
     }
 
@@ -38,8 +59,13 @@ public class BookingController {
     List<BookingDto> getBookingByState(@RequestHeader("X-Sharer-User-Id") long userId,
                                        @RequestParam(required = false, defaultValue = "ALL") BookingFilterState state,
                                        @RequestParam(defaultValue = "0") int from,
-                                       @RequestParam(defaultValue = "10") int size) {
-        return bookingService.getBookingsByState(userId, state, new PaginationRequest(from, size));
+                                       @RequestParam(defaultValue = "10") int size,
+                                       @RequestParam(required = false) String after,
+                                       HttpServletResponse response) {
+        List<BookingDto> bookings = bookingService.getBookingsByState(userId, state,
+                new PaginationRequest(from, size, after));
+        PageCursor.writeNext(response, bookings, size, b -> PageCursor.of(b.getStart(), b.getId()));
+        return bookings;
     }
 
     @GetMapping("/owner")
@@ -47,7 +73,12 @@ public class BookingController {
             @RequestHeader("X-Sharer-User-Id") long userId,
             @RequestParam(required = false, defaultValue = "ALL") BookingFilterState state,
             @RequestParam(defaultValue = "0") int from,
-            @RequestParam(defaultValue = "10") int size) {
-        return bookingService.getOwnerBookingsByState(userId, state, new PaginationRequest(from, size));
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after,
+            HttpServletResponse response) {
+        List<BookingDto> bookings = bookingService.getOwnerBookingsByState(userId, state,
+                new PaginationRequest(from, size, after));
+        PageCursor.writeNext(response, bookings, size, b -> PageCursor.of(b.getStart(), b.getId()));
+        return bookings;
     }
 }
@@ -0,0 +1,118 @@
+package ru.practicum.shareit.booking;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.IntervalDto;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Active (waiting or approved) bookings of each item that haven't ended yet, start mapped to end.
+ * They never overlap, so the sorted map is an interval tree for the item. An item's bookings are read
+ * from the database on first use, kept up to date by {@link BookingServiceImpl} after each commit, and read
+ * again once shareit.availability.expire-after-write has passed since the load.
+ * <p>
+ * The index is local to the instance: bookings written by another server instance or straight into the database
+ * are seen only after the reload. It answers availability queries only; overlap checks of new bookings read the
+ * database, whose constraint has the last word.
+ */
+@Component
+public class BookingIntervalIndex {
+    static final Set<BookingStatus> ACTIVE_STATUSES = EnumSet.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final Cache<Long, NavigableMap<LocalDateTime, LocalDateTime>> intervals;
+
+    @Autowired
+    public BookingIntervalIndex(BookingRepository bookingRepository,
+                                @Value("${shareit.availability.max-items:10000}") long maxItems,
+                                @Value("${shareit.availability.expire-after-write:PT1M}") Duration expireAfterWrite) {
+        this(bookingRepository, maxItems, expireAfterWrite, Ticker.systemTicker());
+    }
+
+    BookingIntervalIndex(BookingRepository bookingRepository, long maxItems, Duration expireAfterWrite, Ticker ticker) {
+        this.bookingRepository = bookingRepository;
+        this.intervals = Caffeine.newBuilder()
+                .maximumSize(maxItems)
+                .expireAfterWrite(expireAfterWrite)
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * Free periods of the item within {@code [from, to)}, in order.
+     */
+    public List<IntervalDto> findFree(long itemId, LocalDateTime from, LocalDateTime to) {
+        NavigableMap<LocalDateTime, LocalDateTime> booked = intervalsOf(itemId);
+        LocalDateTime firstStart = booked.floorKey(from);
+        List<IntervalDto> free = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (Map.Entry<LocalDateTime, LocalDateTime> booking
+                : booked.subMap(firstStart != null ? firstStart : from, true, to, false).entrySet()) {
+            if (booking.getKey().isAfter(cursor)) {
+                free.add(new IntervalDto(cursor, booking.getKey()));
+            }
+            if (booking.getValue().isAfter(cursor)) {
+                cursor = booking.getValue();
+            }
+        }
+        if (cursor.isBefore(to)) {
+            free.add(new IntervalDto(cursor, to));
+        }
+        return free;
+    }
+
+    void add(long itemId, LocalDateTime start, LocalDateTime end) {
+        afterCommit(() -> {
+            NavigableMap<LocalDateTime, LocalDateTime> booked = intervalsOf(itemId);
+            booked.put(start, end);
+            LocalDateTime now = LocalDateTime.now();
+            booked.headMap(now).entrySet().removeIf(b -> !b.getValue().isAfter(now));
+        });
+    }
+
+    void remove(long itemId, LocalDateTime start, LocalDateTime end) {
+        afterCommit(() -> intervalsOf(itemId).remove(start, end));
+    }
+
+    private NavigableMap<LocalDateTime, LocalDateTime> intervalsOf(long itemId) {
+        return intervals.get(itemId, id -> {
+            NavigableMap<LocalDateTime, LocalDateTime> booked = new ConcurrentSkipListMap<>();
+            bookingRepository.findIntervalsOfItem(id, ACTIVE_STATUSES, LocalDateTime.now())
+                    .forEach(b -> booked.put(b.getStart(), b.getEnd()));
+            return booked;
+        });
+    }
+
+    /**
+     * Loading an item reads committed rows only, so changes are applied once they are committed as well;
+     * both orders of a load and a commit then end up with the same intervals.
+     */
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+}
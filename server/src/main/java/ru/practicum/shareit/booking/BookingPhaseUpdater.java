@@ -0,0 +1,60 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.BookingPhase;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves the {@link BookingPhase} of bookings forward as they cross their start and end. The queue of upcoming
+ * boundaries is the database's: the (phase, start_date) and (phase, end_date) indexes hand each run the bookings
+ * that crossed one since the last run, however long ago that was.
+ * <p>
+ * The time since the last run is the most the phases lag behind the clock, published as
+ * {@code shareit.booking.phase.lag}. The state filters stay exact meanwhile, see BookingViewRepositoryImpl. The
+ * first run happens once the application is ready: the phases may be as old as the last one before a restart,
+ * which this instance does not know, so the gauge has no value until then.
+ */
+@Component
+public class BookingPhaseUpdater {
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+    @Nullable
+    private volatile LocalDateTime stampedAt;
+
+    public BookingPhaseUpdater(BookingRepository bookingRepository,
+                               TransactionTemplate transactionTemplate,
+                               MeterRegistry meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        this.transactionTemplate = transactionTemplate;
+        TimeGauge.builder("shareit.booking.phase.lag", this, TimeUnit.MILLISECONDS, BookingPhaseUpdater::lagMillis)
+                .description("Time since booking phases were last moved forward")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${shareit.booking-phase.roll-forward-delay:PT1M}",
+            fixedDelayString = "${shareit.booking-phase.roll-forward-delay:PT1M}")
+    public void rollForward() {
+        LocalDateTime time = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(s -> {
+            bookingRepository.stampEndedBefore(time);
+            bookingRepository.stampStartedBefore(time);
+        });
+        stampedAt = time;
+    }
+
+    double lagMillis() {
+        LocalDateTime time = stampedAt;
+        return time == null ? Double.NaN : Duration.between(time, LocalDateTime.now()).toMillis();
+    }
+}
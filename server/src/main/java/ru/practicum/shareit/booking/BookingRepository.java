@@ -3,78 +3,118 @@ package ru.practicum.shareit.booking;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.dto.BookingVersionView;
+import ru.practicum.shareit.booking.dto.IntervalDto;
+import ru.practicum.shareit.booking.dto.ItemBookingsVersionView;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
+import ru.practicum.shareit.booking.dto.ItemIntervalView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
-
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    @EntityGraph("Booking.eager")
-    List<Booking> findByBookerIdAndStatus(Long bookerId, BookingStatus status, Pageable pageable);
-
-    @EntityGraph("Booking.eager")
-    List<Booking> findByBookerIdAndStatusIn(Long bookerId, Set<BookingStatus> status, Pageable pageable);
-
-    @EntityGraph("Booking.eager")
-    List<Booking> findByBookerId(Long bookerId, Pageable pageable);
+import java.util.Optional;
 
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingViewRepository {
     boolean existsByBookerIdAndItemIdAndEndBefore(Long bookerId, Long itemId, LocalDateTime currentTime);
 
     @EntityGraph("Booking.eager")
-    List<Booking> findByBookerIdAndEndIsBefore(Long bookerId, LocalDateTime currentTime, Pageable pageable);
-
-    @Query("select b from Booking b join fetch b.item join fetch b.booker " +
-            "where b.end > ?2 and b.start < ?2 " +
-            "and b.booker.id = ?1 order by b.start desc")
-    List<Booking> findByBookerIdCurrent(Long bookerId, LocalDateTime currentTime, Pageable pageable);
-
-    @EntityGraph("Booking.eager")
-    List<Booking> findByBookerIdAndStartIsAfter(Long bookerId, LocalDateTime currentTime, Pageable pageable);
-
-    @EntityGraph("Booking.eager")
-    List<Booking> findByItemOwnerIdAndStatus(Long ownerId, BookingStatus status, Pageable pageable);
-
-    @EntityGraph("Booking.eager")
-    List<Booking> findByItemOwnerIdAndStatusIn(Long ownerId, Set<BookingStatus> status, Pageable pageable);
-
-    @EntityGraph("Booking.eager")
-    List<Booking> findByItemOwnerId(Long ownerId, Pageable pageable);
-
-    @EntityGraph("Booking.eager")
-    List<Booking> findByItemOwnerIdAndEndIsBefore(Long bookerId, LocalDateTime currentTime, Pageable pageable);
-
-    @Query("select b from Booking b join fetch b.item join fetch b.booker " +
-            "where b.end > ?2 and b.start < ?2 " +
-            "and b.item.owner.id = ?1 order by b.start")
-    List<Booking> findByItemOwnerIdCurrent(Long bookerId, LocalDateTime currentTime, Pageable pageable);
-
-    @EntityGraph("Booking.eager")
-    List<Booking> findByItemOwnerIdAndStartIsAfter(Long bookerId, LocalDateTime currentTime, Pageable pageable);
-
-    @Query("select b from Booking b join b.item as i join b.booker " +
-            " where b.start < ?2 and i.id = ?1 and b.status != 'REJECTED' " +
-            " order by b.start desc")
-    List<Booking> findLastBookingsOfItem(Long itemId, LocalDateTime currentTime, Pageable pageable);
-
-    @Query("select b from Booking b join b.item as i join b.booker " +
-            " where b.start > ?2 and i.id = ?1 and b.status != 'REJECTED' " +
-            " order by b.start")
-    List<Booking> findNextBookingsOfItem(Long itemId, LocalDateTime currentTime, Pageable pageable);
-
-    @Query("select b from Booking b join fetch b.item i join fetch b.booker " +
-            " where i.id in ?1 " +
-            "   and b.start = (select MAX(b2.start) from Booking b2 where b2.item = b.item" +
-            "   and b2.status != 'REJECTED' and b2.start < ?2)"
-    )
-    List<Booking> findLastBookingOfItems(List<Long> itemIds, LocalDateTime currentTime);
-
-    @Query("select b from Booking b join fetch b.item i join fetch b.booker " +
-            " where  i.id in ?1 " +
-            "  and b.start = (select MIN(b2.start) from Booking b2 where b2.item = b.item " +
-            "   and b2.start > ?2 and b2.status != 'REJECTED')"
-    )
-    List<Booking> findNextBookingOfItems(List<Long> itemIds, LocalDateTime currentTime);
+    List<Booking> findAllByIdInAndItemOwnerId(Collection<Long> ids, long ownerId);
+
+    /**
+     * Ends of the item's bookings in {@code statuses} that start before {@code end}, latest start first.
+     * Active bookings of an item don't overlap, so the first row is the only candidate for an overlap.
+     */
+    @Query("select b.end from Booking b " +
+            "where b.item.id = :itemId and b.status in :statuses and b.start < :end " +
+            "order by b.start desc")
+    List<LocalDateTime> findEndsOfBookingsStartingBefore(@Param("itemId") long itemId,
+                                                         @Param("statuses") Collection<BookingStatus> statuses,
+                                                         @Param("end") LocalDateTime end,
+                                                         Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.booking.dto.IntervalDto(b.start, b.end) from Booking b " +
+            "where b.item.id = :itemId and b.status in :statuses and b.end > :currentTime")
+    List<IntervalDto> findIntervalsOfItem(@Param("itemId") long itemId,
+                                          @Param("statuses") Collection<BookingStatus> statuses,
+                                          @Param("currentTime") LocalDateTime currentTime);
+
+    /**
+     * Bookings of the items in {@code statuses} that overlap {@code [from, to)}: what a batch of new bookings
+     * spanning that period has to be checked against, in one query.
+     */
+    @Query("select b.item.id as itemId, b.start as start, b.end as end from Booking b " +
+            "where b.item.id in :itemIds and b.status in :statuses and b.start < :to and b.end > :from")
+    List<ItemIntervalView> findIntervalsOfItemsOverlapping(@Param("itemIds") Collection<Long> itemIds,
+                                                           @Param("statuses") Collection<BookingStatus> statuses,
+                                                           @Param("from") LocalDateTime from,
+                                                           @Param("to") LocalDateTime to);
+
+    @Query("select count(b) as bookings, coalesce(sum(b.version), 0) as versions, " +
+            "       coalesce(sum(case when b.start < :currentTime then 1 else 0 end), 0) as started " +
+            "  from Booking b where b.item.id = :itemId")
+    ItemBookingsVersionView findVersionOfItemBookings(@Param("itemId") long itemId,
+                                                      @Param("currentTime") LocalDateTime currentTime);
+
+    /**
+     * Sets the status of a waiting booking of the owner's item in one statement, without loading it. Of concurrent
+     * calls at most one finds the booking waiting: the row lock of the first makes the others re-check the status.
+     *
+     * @return 1 if the status was set, 0 if the booking is missing, of another owner or already considered
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b set b.status = :status, b.version = b.version + 1 " +
+            "where b.id = :bookingId and b.status = ru.practicum.shareit.booking.model.BookingStatus.WAITING " +
+            "  and b.item.id in (select i.id from Item i where i.owner.id = :ownerId)")
+    int updateWaitingStatus(@Param("bookingId") long bookingId,
+                            @Param("ownerId") long ownerId,
+                            @Param("status") BookingStatus status);
+
+    /**
+     * Stamps PAST on the bookings that ended before {@code time}. The version stays: the phase is not part of
+     * a booking's representation. The phases are listed rather than negated: each one is a range of the
+     * (phase, end_date) index, where {@code <> PAST} would read the past bookings too, nearly all of the table.
+     */
+    @Modifying
+    @Query("update Booking b set b.phase = ru.practicum.shareit.booking.model.BookingPhase.PAST " +
+            "where b.phase in (ru.practicum.shareit.booking.model.BookingPhase.FUTURE, " +
+            "                  ru.practicum.shareit.booking.model.BookingPhase.CURRENT) " +
+            "  and b.end < :time")
+    int stampEndedBefore(@Param("time") LocalDateTime time);
+
+    /**
+     * Stamps CURRENT on the future bookings that started before {@code time} and have not ended by then.
+     */
+    @Modifying
+    @Query("update Booking b set b.phase = ru.practicum.shareit.booking.model.BookingPhase.CURRENT " +
+            "where b.phase = ru.practicum.shareit.booking.model.BookingPhase.FUTURE " +
+            "  and b.start < :time and b.end >= :time")
+    int stampStartedBefore(@Param("time") LocalDateTime time);
+
+    @Query("select b.version as version, i.version as itemVersion, " +
+            "       u.id as bookerId, u.version as bookerVersion, o.id as ownerId, o.version as ownerVersion " +
+            "  from Booking b join b.item i join b.booker u join i.owner o where b.id = ?1")
+    Optional<BookingVersionView> findVersionById(long bookingId);
+
+    /**
+     * Returns at most two rows per item: the latest booking started before {@code currentTime}
+     * ({@code last = true}) and the earliest one starting after it ({@code last = false}).
+     */
+    @Query(value = "select t.item_id as itemId, t.id as id, t.booker_id as bookerId, " +
+            "       t.start_date as start, t.end_date as \"end\", t.is_last as last " +
+            "  from (select b.item_id, b.id, b.booker_id, b.start_date, b.end_date, " +
+            "               b.start_date < :currentTime as is_last, " +
+            "               row_number() over (partition by b.item_id, b.start_date < :currentTime " +
+            "                   order by case when b.start_date < :currentTime then b.start_date end desc, " +
+            "                            b.start_date, b.id) as rn " +
+            "          from bookings b " +
+            "         where b.item_id in (:itemIds) and b.status <> 'REJECTED' " +
+            "           and b.start_date <> :currentTime) t " +
+            " where t.rn = 1", nativeQuery = true)
+    List<ItemBookingView> findLastAndNextBookingsOfItems(@Param("itemIds") Collection<Long> itemIds,
+                                                         @Param("currentTime") LocalDateTime currentTime);
 }
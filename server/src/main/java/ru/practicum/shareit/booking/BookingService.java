@@ -1,7 +1,9 @@
 package ru.practicum.shareit.booking;
 
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
 import ru.practicum.shareit.param.PaginationRequest;
 
 import java.util.List;
@@ -9,10 +11,26 @@ import java.util.List;
 public interface BookingService {
     BookingDto addBooking(BookingCreateDto bookingDto, long userId);
 
+    /**
+     * Creates the valid bookings in one transaction; invalid entries are reported in their result and skipped.
+     */
+    List<BookingBatchResultDto> addBookings(List<BookingCreateDto> bookingDtos, long userId);
+
     BookingDto finalizeBookingStatus(long bookingId, long userId, boolean approved);
 
+    /**
+     * Approves or rejects the waiting bookings of the owner in one transaction; other entries are reported
+     * in their result and skipped.
+     */
+    List<BookingBatchResultDto> finalizeBookingStatuses(List<BookingStatusUpdateDto> updates, long userId);
+
     BookingDto getBookingById(long bookingId, long userId);
 
+    /**
+     * Entity tag of what {@link #getBookingById} shows the user, built from the booking and item versions.
+     */
+    String getBookingETag(long bookingId, long userId);
+
     List<BookingDto> getBookingsByState(long userId, BookingFilterState state, PaginationRequest pagRequest);
 
     List<BookingDto> getOwnerBookingsByState(long userId, BookingFilterState state, PaginationRequest pagRequest);
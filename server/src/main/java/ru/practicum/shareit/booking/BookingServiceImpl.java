@@ -1,39 +1,71 @@
 package ru.practicum.shareit.booking;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.validation.annotation.Validated;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
+import ru.practicum.shareit.booking.dto.BookingVersionView;
+import ru.practicum.shareit.booking.dto.BookingView;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ObjectUnavailableException;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.param.PageCursor;
 import ru.practicum.shareit.param.PaginationRequest;
 import ru.practicum.shareit.param.PaginationRequestConverter;
+import ru.practicum.shareit.query.QueryBudget;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Validated
 @RequiredArgsConstructor
+@Timed(value = "shareit.service", histogram = true)
 public class BookingServiceImpl implements BookingService {
+    private static final Sort START_DESC = Sort.by(Sort.Direction.DESC, "start").and(Sort.by(Sort.Direction.DESC, "id"));
+    // the owner's current bookings have always been listed earliest start first, unlike the other states
+    private static final Sort START_ASC = Sort.by(Sort.Direction.ASC, "start").and(Sort.by(Sort.Direction.ASC, "id"));
+    private static final Pageable LATEST = PageRequest.of(0, 1);
+    private static final int BATCH_ATTEMPTS = 3;
+
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final BookingIntervalIndex intervalIndex;
+    private final ItemBookingSummaryUpdater summaryUpdater;
+    private final TransactionTemplate transactionTemplate;
 
+    @QueryBudget(9)
     @Transactional
     @Override
     public BookingDto addBooking(BookingCreateDto bookingDto, long userId) {
@@ -42,29 +74,98 @@ public class BookingServiceImpl implements BookingService {
         if (item.getOwner().getId() == userId) {
             throw new NotFoundException("Not found users that don't own item");
         }
+        checkNotOverlapping(item.getId(), bookingDto.getStart(), bookingDto.getEnd());
 
-        return BookingMapper.toDto(bookingRepository.save(BookingMapper.createDtoToBooking(bookingDto, user, item)));
+        Booking booking;
+        try {
+            booking = bookingRepository.saveAndFlush(BookingMapper.createDtoToBooking(bookingDto, user, item));
+        } catch (DataIntegrityViolationException e) {
+            // a concurrent booking of the same period got in first, see bookings_item_no_overlap
+            throw new ConflictException("Item is already booked for this period");
+        }
+        intervalIndex.add(item.getId(), booking.getStart(), booking.getEnd());
+        summaryUpdater.refresh(List.of(item.getId()));
+        return BookingMapper.toDto(booking);
     }
 
+    @Override
+    public List<BookingBatchResultDto> addBookings(List<BookingCreateDto> bookingDtos, long userId) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> addBookingsOnce(bookingDtos, userId));
+            } catch (DataIntegrityViolationException e) {
+                // a concurrent booking got in between the check and the insert, see bookings_item_no_overlap.
+                // It has committed by now, so checking the batch again reports the entries it overlaps
+                if (attempt == BATCH_ATTEMPTS) {
+                    throw new ConflictException("Item is already booked for this period");
+                }
+            }
+        }
+    }
+
+    @QueryBudget(8)
     @Transactional
     @Override
     public BookingDto finalizeBookingStatus(long bookingId, long userId, boolean approved) {
-        Booking booking = getBooking(bookingId);
-        getBookingUser(userId);
-
-        if (booking.getStatus() != BookingStatus.WAITING) {
-            throw new IllegalArgumentException("Status was already considered");
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        if (bookingRepository.updateWaitingStatus(bookingId, userId, status) == 0) {
+            throw statusNotChanged(bookingId, userId);
         }
-        if (booking.getItem().getOwner().getId() != userId) {
-            throw new NotFoundException("No booking for owner with user id " + userId);
+        Booking booking = getBooking(bookingId);
+        if (status == BookingStatus.REJECTED) {
+            // approving keeps the booking where it was, a rejected one drops out of last and next
+            intervalIndex.remove(booking.getItem().getId(), booking.getStart(), booking.getEnd());
+            summaryUpdater.refresh(List.of(booking.getItem().getId()));
         }
-        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
-        booking.setStatus(status);
-        bookingRepository.save(booking);
 
         return BookingMapper.toDto(booking);
     }
 
+    @Transactional
+    @Override
+    public List<BookingBatchResultDto> finalizeBookingStatuses(List<BookingStatusUpdateDto> updates, long userId) {
+        checkUserExists(userId);
+        Set<Long> bookingIds = updates.stream()
+                .filter(Objects::nonNull)
+                .map(BookingStatusUpdateDto::getBookingId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Booking> ownedBookings = bookingIds.isEmpty()
+                ? Map.of()
+                : bookingRepository.findAllByIdInAndItemOwnerId(bookingIds, userId).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        // the bookings are managed, their updates are flushed together on commit
+        List<BookingBatchResultDto> results = new ArrayList<>(updates.size());
+        Set<Long> rejectedItemIds = new HashSet<>();
+        for (BookingStatusUpdateDto update : updates) {
+            if (update == null || update.getBookingId() == null || update.getApproved() == null) {
+                results.add(BookingBatchResultDto.failure("bookingId and approved are required"));
+                continue;
+            }
+            Booking booking = ownedBookings.get(update.getBookingId());
+            if (booking == null) {
+                results.add(BookingBatchResultDto.failure(
+                        "No booking " + update.getBookingId() + " for owner with user id " + userId));
+            } else if (booking.getStatus() != BookingStatus.WAITING) {
+                results.add(BookingBatchResultDto.failure("Status was already considered"));
+            } else {
+                applyStatus(booking, update.getApproved());
+                if (!update.getApproved()) {
+                    rejectedItemIds.add(booking.getItem().getId());
+                }
+                results.add(BookingBatchResultDto.success(BookingMapper.toDto(booking)));
+            }
+        }
+        if (!rejectedItemIds.isEmpty()) {
+            // or the summaries would be computed without the rejections
+            bookingRepository.flush();
+            summaryUpdater.refresh(rejectedItemIds);
+        }
+        return results;
+    }
+
+    @QueryBudget(3)
     @Transactional(readOnly = true)
     @Override
     public BookingDto getBookingById(long bookingId, long userId) {
@@ -76,93 +177,205 @@ public class BookingServiceImpl implements BookingService {
         return BookingMapper.toDto(booking);
     }
 
+    @QueryBudget(1)
+    @Transactional(readOnly = true)
+    @Override
+    public String getBookingETag(long bookingId, long userId) {
+        BookingVersionView booking = bookingRepository.findVersionById(bookingId)
+                .orElseThrow(() -> new NotFoundException("Booking doesn't exist"));
+        if (booking.getBookerId() != userId && booking.getOwnerId() != userId) {
+            throw new NotFoundException("No available bookings for user " + userId);
+        }
+        return booking.getVersion() + "." + booking.getItemVersion() + "." + booking.getBookerVersion() + "."
+                + booking.getOwnerVersion();
+    }
+
+    @QueryBudget(2)
     @Transactional(readOnly = true)
     @Override
     public List<BookingDto> getBookingsByState(long userId,
                                                BookingFilterState filterState,
                                                PaginationRequest pagRequest) {
-        getBookingUser(userId);
-        List<Booking> bookings;
-        Pageable pageable = PaginationRequestConverter.toPageable(pagRequest, Sort.by(Sort.Direction.DESC, "start"));
+        checkUserExists(userId);
         LocalDateTime currentTime = LocalDateTime.now();
+        List<BookingView> bookings = pagRequest.isKeyset()
+                ? bookingRepository.findBookerBookingsAfter(
+                userId, filterState, currentTime, PageCursor.decodePositioned(pagRequest.getAfter()), pagRequest.getSize())
+                : bookingRepository.findBookerBookings(
+                userId, filterState, currentTime, PaginationRequestConverter.toPageable(pagRequest, START_DESC));
 
-        switch (filterState) {
-            case ALL:
-                bookings = bookingRepository.findByBookerId(userId, pageable);
-                break;
-            case CURRENT:
-                bookings = bookingRepository.findByBookerIdCurrent(userId, currentTime, pageable);
-                break;
-            case PAST:
-                bookings = bookingRepository.findByBookerIdAndEndIsBefore(userId, currentTime, pageable);
-                break;
-            case FUTURE:
-                bookings = bookingRepository.findByBookerIdAndStartIsAfter(userId, currentTime, pageable);
-                break;
-            case WAITING:
-                bookings = bookingRepository.findByBookerIdAndStatus(userId,
-                        BookingStatus.WAITING,
-                        pageable);
-                break;
-            case REJECTED:
-                bookings = bookingRepository.findByBookerIdAndStatusIn(userId,
-                        Set.of(BookingStatus.REJECTED, BookingStatus.CANCELLED),
-                        pageable);
-                break;
-            default:
-                bookings = Collections.emptyList();
-        }
-        return bookings.stream()
-                .map(BookingMapper::toDto)
-                .collect(Collectors.toList());
+        return toDtos(bookings);
     }
 
+    @QueryBudget(2)
     @Transactional(readOnly = true)
     @Override
     public List<BookingDto> getOwnerBookingsByState(long userId,
                                                     BookingFilterState filterState,
                                                     PaginationRequest pagRequest) {
-        getBookingUser(userId);
-        List<Booking> bookings;
-        Pageable pageable = PaginationRequestConverter.toPageable(pagRequest, Sort.by(Sort.Direction.DESC, "start"));
+        checkUserExists(userId);
         LocalDateTime currentTime = LocalDateTime.now();
+        List<BookingView> bookings = pagRequest.isKeyset()
+                ? bookingRepository.findOwnerBookingsAfter(
+                userId, filterState, currentTime, PageCursor.decodePositioned(pagRequest.getAfter()), pagRequest.getSize())
+                : bookingRepository.findOwnerBookings(
+                userId, filterState, currentTime, PaginationRequestConverter.toPageable(pagRequest,
+                        filterState == BookingFilterState.CURRENT ? START_ASC : START_DESC));
 
-        switch (filterState) {
-            case ALL:
-                bookings = bookingRepository.findByItemOwnerId(userId, pageable);
-                break;
-            case CURRENT:
-                bookings = bookingRepository.findByItemOwnerIdCurrent(userId, currentTime, pageable);
-                break;
-            case PAST:
-                bookings = bookingRepository.findByItemOwnerIdAndEndIsBefore(userId, currentTime, pageable);
-                break;
-            case FUTURE:
-                bookings = bookingRepository.findByItemOwnerIdAndStartIsAfter(userId, currentTime, pageable);
-                break;
-            case WAITING:
-                bookings = bookingRepository.findByItemOwnerIdAndStatus(userId,
-                        BookingStatus.WAITING,
-                        pageable);
-                break;
-            case REJECTED:
-                bookings = bookingRepository.findByItemOwnerIdAndStatusIn(userId,
-                        Set.of(BookingStatus.CANCELLED, BookingStatus.REJECTED),
-                        pageable);
-                break;
-            default:
-                bookings = Collections.emptyList();
-        }
+        return toDtos(bookings);
+    }
+
+    private static List<BookingDto> toDtos(List<BookingView> bookings) {
         return bookings.stream()
                 .map(BookingMapper::toDto)
                 .collect(Collectors.toList());
     }
 
-
     private User getBookingUser(Long userId) {
         return userRepository.findById(userId).orElseThrow(() -> new NotFoundException("User doesn't exist"));
     }
 
+    private void checkUserExists(long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("User doesn't exist");
+        }
+    }
+
+    private List<BookingBatchResultDto> addBookingsOnce(List<BookingCreateDto> bookingDtos, long userId) {
+        User user = getBookingUser(userId);
+        Set<Long> itemIds = bookingDtos.stream()
+                .filter(Objects::nonNull)
+                .map(BookingCreateDto::getItemId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        LocalDateTime currentTime = LocalDateTime.now();
+
+        Booking[] bookings = new Booking[bookingDtos.size()];
+        String[] errors = new String[bookingDtos.size()];
+        for (int i = 0; i < bookingDtos.size(); i++) {
+            try {
+                bookings[i] = toNewBooking(bookingDtos.get(i), user, items, currentTime);
+            } catch (BadRequestException | NotFoundException | ObjectUnavailableException e) {
+                errors[i] = e.getMessage();
+            }
+        }
+        Map<Long, NavigableMap<LocalDateTime, LocalDateTime>> booked = findBookedIntervals(bookings);
+        for (int i = 0; i < bookings.length; i++) {
+            if (bookings[i] != null && !book(booked, bookings[i])) {
+                bookings[i] = null;
+                errors[i] = "Item is already booked for this period";
+            }
+        }
+
+        List<Booking> created = Arrays.stream(bookings).filter(Objects::nonNull).collect(Collectors.toList());
+        // one flush, so the inserts go out as JDBC batches of hibernate.jdbc.batch_size
+        bookingRepository.saveAll(created);
+        bookingRepository.flush();
+        created.forEach(b -> intervalIndex.add(b.getItem().getId(), b.getStart(), b.getEnd()));
+        if (!created.isEmpty()) {
+            summaryUpdater.refresh(created.stream().map(b -> b.getItem().getId()).collect(Collectors.toSet()));
+        }
+
+        List<BookingBatchResultDto> results = new ArrayList<>(bookings.length);
+        for (int i = 0; i < bookings.length; i++) {
+            results.add(bookings[i] != null
+                    ? BookingBatchResultDto.success(BookingMapper.toDto(bookings[i]))
+                    : BookingBatchResultDto.failure(errors[i]));
+        }
+        return results;
+    }
+
+    /**
+     * Active bookings of the items of {@code bookings}, by start per item, over the whole period the batch spans:
+     * one query however many entries the batch has.
+     */
+    private Map<Long, NavigableMap<LocalDateTime, LocalDateTime>> findBookedIntervals(Booking[] bookings) {
+        Map<Long, NavigableMap<LocalDateTime, LocalDateTime>> booked = new HashMap<>();
+        List<Booking> valid = Arrays.stream(bookings).filter(Objects::nonNull).collect(Collectors.toList());
+        if (valid.isEmpty()) {
+            return booked;
+        }
+        Set<Long> itemIds = valid.stream().map(b -> b.getItem().getId()).collect(Collectors.toSet());
+        LocalDateTime from = valid.stream().map(Booking::getStart).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime to = valid.stream().map(Booking::getEnd).max(Comparator.naturalOrder()).orElseThrow();
+        bookingRepository.findIntervalsOfItemsOverlapping(itemIds, BookingIntervalIndex.ACTIVE_STATUSES, from, to)
+                .forEach(interval -> booked.computeIfAbsent(interval.getItemId(), id -> new TreeMap<>())
+                        .put(interval.getStart(), interval.getEnd()));
+        return booked;
+    }
+
+    /**
+     * Adds the period of {@code booking} to {@code booked} unless it overlaps one there, which holds the item's
+     * bookings from the database and the entries of the batch accepted so far.
+     */
+    private static boolean book(Map<Long, NavigableMap<LocalDateTime, LocalDateTime>> booked, Booking booking) {
+        NavigableMap<LocalDateTime, LocalDateTime> ofItem =
+                booked.computeIfAbsent(booking.getItem().getId(), id -> new TreeMap<>());
+        // the periods there don't overlap, so the latest one starting before the end is the only candidate
+        Map.Entry<LocalDateTime, LocalDateTime> previous = ofItem.lowerEntry(booking.getEnd());
+        if (previous != null && previous.getValue().isAfter(booking.getStart())) {
+            return false;
+        }
+        ofItem.put(booking.getStart(), booking.getEnd());
+        return true;
+    }
+
+    private void checkNotOverlapping(long itemId, LocalDateTime start, LocalDateTime end) {
+        List<LocalDateTime> latestEnd = bookingRepository.findEndsOfBookingsStartingBefore(
+                itemId, BookingIntervalIndex.ACTIVE_STATUSES, end, LATEST);
+        if (!latestEnd.isEmpty() && latestEnd.get(0).isAfter(start)) {
+            throw new ConflictException("Item is already booked for this period");
+        }
+    }
+
+    /**
+     * Why the conditional update of {@link #finalizeBookingStatus} changed nothing, read after the fact.
+     */
+    private RuntimeException statusNotChanged(long bookingId, long userId) {
+        Booking booking = getBooking(bookingId);
+        checkUserExists(userId);
+        if (booking.getStatus() != BookingStatus.WAITING) {
+            return new IllegalArgumentException("Status was already considered");
+        }
+        if (booking.getItem().getOwner().getId() != userId) {
+            return new NotFoundException("No booking for owner with user id " + userId);
+        }
+        return new ConflictException("Booking " + bookingId + " was changed concurrently");
+    }
+
+    private void applyStatus(Booking booking, boolean approved) {
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        booking.setStatus(status);
+        if (status == BookingStatus.REJECTED) {
+            intervalIndex.remove(booking.getItem().getId(), booking.getStart(), booking.getEnd());
+        }
+    }
+
+    private Booking toNewBooking(BookingCreateDto dto, User user, Map<Long, Item> items, LocalDateTime currentTime) {
+        if (dto == null || dto.getItemId() == null || dto.getStart() == null || dto.getEnd() == null) {
+            throw new BadRequestException("itemId, start and end are required");
+        }
+        if (dto.getStart().isBefore(currentTime)) {
+            throw new BadRequestException("start time must not be in the past");
+        }
+        if (!dto.getEnd().isAfter(dto.getStart())) {
+            throw new BadRequestException("end time must be after start time");
+        }
+        Item item = items.get(dto.getItemId());
+        if (item == null) {
+            throw new NotFoundException("Item doesn't exist");
+        }
+        if (!item.isAvailable()) {
+            throw new ObjectUnavailableException("Item not available for booking");
+        }
+        if (item.getOwner().getId().equals(user.getId())) {
+            throw new NotFoundException("Not found users that don't own item");
+        }
+        return BookingMapper.createDtoToBooking(dto, user, item);
+    }
+
     private Item getBookingItem(Long itemId) {
         Item item = itemRepository.findById(itemId).orElseThrow(() -> new NotFoundException("Item doesn't exist"));
         if (!item.isAvailable()) {
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.param.PageCursor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface BookingViewRepository {
+    List<BookingView> findBookerBookings(long bookerId,
+                                         BookingFilterState state,
+                                         LocalDateTime currentTime,
+                                         Pageable pageable);
+
+    List<BookingView> findOwnerBookings(long ownerId,
+                                        BookingFilterState state,
+                                        LocalDateTime currentTime,
+                                        Pageable pageable);
+
+    List<BookingView> findBookerBookingsAfter(long bookerId,
+                                              BookingFilterState state,
+                                              LocalDateTime currentTime,
+                                              PageCursor after,
+                                              int size);
+
+    List<BookingView> findOwnerBookingsAfter(long ownerId,
+                                             BookingFilterState state,
+                                             LocalDateTime currentTime,
+                                             PageCursor after,
+                                             int size);
+}
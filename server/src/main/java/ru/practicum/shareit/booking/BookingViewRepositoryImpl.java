@@ -0,0 +1,185 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.param.PageCursor;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Booking list queries by state. Rows are selected straight into {@link BookingView}, so no booking,
+ * item or user entities enter the persistence context.
+ * <p>
+ * The {@code *After} variants seek over (start desc, id desc): the next page starts strictly after
+ * the cursor row, so every page costs the same index range scan as the first one.
+ * <p>
+ * Each query is timed as {@code shareit.booking.query}, tagged with role (booker or owner), filter state
+ * and paging (offset or keyset).
+ */
+public class BookingViewRepositoryImpl implements BookingViewRepository {
+    private static final Sort START_DESC = Sort.by(Sort.Direction.DESC, "start").and(Sort.by(Sort.Direction.DESC, "id"));
+
+    private static final BiFunction<Root<Booking>, Join<Booking, Item>, Path<Long>> BOOKER_ID =
+            (root, item) -> root.get("booker").get("id");
+    private static final BiFunction<Root<Booking>, Join<Booking, Item>, Path<Long>> OWNER_ID =
+            (root, item) -> item.get("owner").get("id");
+
+    private final MeterRegistry meterRegistry;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Repository slice tests have no metrics, their timers go to a registry of their own.
+     */
+    public BookingViewRepositoryImpl(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+    }
+
+    @Override
+    public List<BookingView> findBookerBookings(long bookerId,
+                                                BookingFilterState state,
+                                                LocalDateTime currentTime,
+                                                Pageable pageable) {
+        return timed("booker", state, "offset", () -> find(BOOKER_ID, bookerId, state, currentTime, null, pageable));
+    }
+
+    @Override
+    public List<BookingView> findOwnerBookings(long ownerId,
+                                               BookingFilterState state,
+                                               LocalDateTime currentTime,
+                                               Pageable pageable) {
+        return timed("owner", state, "offset", () -> find(OWNER_ID, ownerId, state, currentTime, null, pageable));
+    }
+
+    @Override
+    public List<BookingView> findBookerBookingsAfter(long bookerId,
+                                                     BookingFilterState state,
+                                                     LocalDateTime currentTime,
+                                                     PageCursor after,
+                                                     int size) {
+        return timed("booker", state, "keyset", () -> find(BOOKER_ID, bookerId, state, currentTime, after,
+                PageRequest.of(0, size, START_DESC)));
+    }
+
+    @Override
+    public List<BookingView> findOwnerBookingsAfter(long ownerId,
+                                                    BookingFilterState state,
+                                                    LocalDateTime currentTime,
+                                                    PageCursor after,
+                                                    int size) {
+        return timed("owner", state, "keyset", () -> find(OWNER_ID, ownerId, state, currentTime, after,
+                PageRequest.of(0, size, START_DESC)));
+    }
+
+    private List<BookingView> timed(String role, BookingFilterState state, String paging,
+                                    Supplier<List<BookingView>> query) {
+        return Timer.builder("shareit.booking.query")
+                .tag("role", role)
+                .tag("state", state.name())
+                .tag("paging", paging)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(query);
+    }
+
+    private List<BookingView> find(BiFunction<Root<Booking>, Join<Booking, Item>, Path<Long>> userPath,
+                                   long userId,
+                                   BookingFilterState state,
+                                   LocalDateTime currentTime,
+                                   PageCursor after,
+                                   Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingView> query = cb.createQuery(BookingView.class);
+        Root<Booking> root = query.from(Booking.class);
+        Join<Booking, Item> item = root.join("item");
+        Join<Booking, User> booker = root.join("booker");
+
+        Path<LocalDateTime> start = root.get("start");
+        Path<Long> id = root.get("id");
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(userPath.apply(root, item), userId));
+        predicates.addAll(statePredicates(cb, root, state, currentTime));
+        if (after != null) {
+            predicates.add(cb.or(
+                    cb.lessThan(start, after.getPosition()),
+                    cb.and(cb.equal(start, after.getPosition()), cb.lessThan(id, after.getId()))
+            ));
+        }
+        query.select(cb.construct(BookingView.class,
+                        id,
+                        start,
+                        root.get("end"),
+                        root.get("status"),
+                        item.get("id"),
+                        item.get("name"),
+                        item.get("description"),
+                        item.get("available"),
+                        item.get("request").get("id"),
+                        booker.get("id"),
+                        booker.get("name"),
+                        booker.get("email")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        TypedQuery<BookingView> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset())
+                    .setMaxResults(pageable.getPageSize());
+        }
+        return typedQuery.getResultList();
+    }
+
+    private static List<Predicate> statePredicates(CriteriaBuilder cb,
+                                                   Root<Booking> root,
+                                                   BookingFilterState state,
+                                                   LocalDateTime currentTime) {
+        Path<LocalDateTime> start = root.get("start");
+        Path<LocalDateTime> end = root.get("end");
+        Path<BookingStatus> status = root.get("status");
+        Path<BookingPhase> phase = root.get("phase");
+
+        // a stamped phase may lag behind currentTime but is never ahead of it: a booking current or future now was
+        // stamped FUTURE or CURRENT, so the equality on the phase skips the past ones and the range checks the rest.
+        // A current booking is either stamped CURRENT (so it started) or still FUTURE with a start before
+        // currentTime, which only the few that started since the last stamp have: each branch is an equality
+        // followed by a short range. PAST keeps its range alone: most bookings are past, the start order reaches
+        // them after the few others
+        switch (state) {
+            case CURRENT:
+                return List.of(cb.greaterThan(end, currentTime), cb.or(
+                        cb.equal(phase, BookingPhase.CURRENT),
+                        cb.and(cb.equal(phase, BookingPhase.FUTURE), cb.lessThan(start, currentTime))));
+            case PAST:
+                return List.of(cb.lessThan(end, currentTime));
+            case FUTURE:
+                return List.of(cb.equal(phase, BookingPhase.FUTURE), cb.greaterThan(start, currentTime));
+            case WAITING:
+                return List.of(cb.equal(status, BookingStatus.WAITING));
+            case REJECTED:
+                return List.of(status.in(Set.of(BookingStatus.REJECTED, BookingStatus.CANCELLED)));
+            default:
+                return List.of();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Long> {
+    /**
+     * Locks the summaries in item order, so that writers of several items don't deadlock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ItemBookingSummary s where s.itemId in :itemIds order by s.itemId")
+    List<ItemBookingSummary> findAllForUpdate(@Param("itemIds") Collection<Long> itemIds);
+
+    @Query("select s.itemId from ItemBookingSummary s where s.next.start <= :currentTime order by s.next.start")
+    List<Long> findItemIdsWithNextStarted(@Param("currentTime") LocalDateTime currentTime, Pageable pageable);
+}
@@ -0,0 +1,100 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.model.SummarizedBooking;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the {@link ItemBookingSummary} of each item in step with its bookings. Writers of bookings call
+ * {@link #refresh} in their transaction; it locks the summaries before reading the bookings, so a concurrent
+ * writer of the same item waits and then sees the other's booking. Summaries whose next booking has started
+ * are rolled forward on a schedule; until then readers take last and next from the bookings table.
+ */
+@Component
+public class ItemBookingSummaryUpdater {
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ItemBookingSummaryUpdater(ItemBookingSummaryRepository summaryRepository,
+                                     BookingRepository bookingRepository,
+                                     TransactionTemplate transactionTemplate,
+                                     @Value("${shareit.booking-summary.batch-size:500}") int batchSize) {
+        this.summaryRepository = summaryRepository;
+        this.bookingRepository = bookingRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Adds the empty summary of a new item.
+     */
+    public void create(long itemId) {
+        // persisted rather than saved: the id is assigned, save would look the row up first
+        entityManager.persist(ItemBookingSummary.builder().itemId(itemId).build());
+    }
+
+    /**
+     * Recomputes the summaries of the items from their bookings. Items without a summary are skipped,
+     * their readers use the bookings table anyway.
+     */
+    void refresh(Collection<Long> itemIds) {
+        Map<Long, ItemBookingSummary> summaries = summaryRepository.findAllForUpdate(itemIds).stream()
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, Function.identity()));
+        if (summaries.isEmpty()) {
+            return;
+        }
+        summaries.values().forEach(s -> {
+            s.setLast(null);
+            s.setNext(null);
+        });
+        for (ItemBookingView view
+                : bookingRepository.findLastAndNextBookingsOfItems(summaries.keySet(), LocalDateTime.now())) {
+            SummarizedBooking booking =
+                    new SummarizedBooking(view.getId(), view.getBookerId(), view.getStart(), view.getEnd());
+            ItemBookingSummary summary = summaries.get(view.getItemId());
+            if (view.getLast()) {
+                summary.setLast(booking);
+            } else {
+                summary.setNext(booking);
+            }
+        }
+    }
+
+    /**
+     * Moves the started next bookings to last, a batch per transaction.
+     */
+    @Scheduled(initialDelayString = "${shareit.booking-summary.roll-forward-delay:PT1M}",
+            fixedDelayString = "${shareit.booking-summary.roll-forward-delay:PT1M}")
+    public void rollForward() {
+        int rolled;
+        do {
+            List<Long> itemIds = transactionTemplate.execute(s -> {
+                List<Long> started = summaryRepository.findItemIdsWithNextStarted(
+                        LocalDateTime.now(), PageRequest.of(0, batchSize));
+                if (!started.isEmpty()) {
+                    refresh(started);
+                }
+                return started;
+            });
+            rolled = itemIds == null ? 0 : itemIds.size();
+        } while (rolled == batchSize);
+    }
+}
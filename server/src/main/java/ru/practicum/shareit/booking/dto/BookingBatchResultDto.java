@@ -0,0 +1,25 @@
+package ru.practicum.shareit.booking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Outcome of one entry of a batch request, in the order of the request:
+ * the booking if the entry was applied, otherwise the reason it was not.
+ */
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookingBatchResultDto {
+    private BookingDto booking;
+    private String error;
+
+    public static BookingBatchResultDto success(BookingDto booking) {
+        return BookingBatchResultDto.builder().booking(booking).build();
+    }
+
+    public static BookingBatchResultDto failure(String error) {
+        return BookingBatchResultDto.builder().error(error).build();
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.dto;
+
+/**
+ * Versions of a booking and of its item, which {@link BookingDto} shows too, with the users allowed to see it and
+ * their versions: the booker's name and email are part of the booking.
+ */
+public interface BookingVersionView {
+    Long getVersion();
+
+    Long getItemVersion();
+
+    Long getBookerId();
+
+    Long getBookerVersion();
+
+    Long getOwnerId();
+
+    Long getOwnerVersion();
+}
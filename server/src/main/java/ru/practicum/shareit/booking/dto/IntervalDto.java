@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Half-open period {@code [start, end)}.
+ */
+@Value
+public class IntervalDto {
+    LocalDateTime start;
+    LocalDateTime end;
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat row of {@link ru.practicum.shareit.booking.BookingRepository#findLastAndNextBookingsOfItems}:
+ * the last or next booking of an item without loading booking, item or booker entities.
+ */
+public interface ItemBookingView {
+    Long getItemId();
+
+    Long getId();
+
+    Long getBookerId();
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+
+    Boolean getLast();
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.dto;
+
+/**
+ * What the last and next booking of an item change with: bookings added, their versions (status changes) and
+ * how many of them have started. Read by
+ * {@link ru.practicum.shareit.booking.BookingRepository#findVersionOfItemBookings}.
+ */
+public interface ItemBookingsVersionView {
+    Long getBookings();
+
+    Long getVersions();
+
+    Long getStarted();
+}
@@ -4,11 +4,16 @@ import lombok.NonNull;
 import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingView;
 import ru.practicum.shareit.booking.dto.ItemBookingDto;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.SummarizedBooking;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 
@@ -38,6 +43,30 @@ public class BookingMapper {
                 .build();
     }
 
+    public static BookingDto toDto(BookingView view) {
+        if (view == null) {
+            return null;
+        }
+        return BookingDto.builder()
+                .id(view.getId())
+                .status(view.getStatus())
+                .booker(UserDto.builder()
+                        .id(view.getBookerId())
+                        .name(view.getBookerName())
+                        .email(view.getBookerEmail())
+                        .build())
+                .end(view.getEnd())
+                .start(view.getStart())
+                .item(ItemDto.builder()
+                        .id(view.getItemId())
+                        .name(view.getItemName())
+                        .description(view.getItemDescription())
+                        .available(view.getItemAvailable())
+                        .requestId(view.getItemRequestId())
+                        .build())
+                .build();
+    }
+
     public static ItemBookingDto toItemBookingDto(Booking booking) {
         if (booking == null) {
             return null;
@@ -49,4 +78,28 @@ public class BookingMapper {
                 .start(booking.getStart())
                 .build();
     }
+
+    public static ItemBookingDto toItemBookingDto(SummarizedBooking booking) {
+        if (booking == null) {
+            return null;
+        }
+        return ItemBookingDto.builder()
+                .id(booking.getId())
+                .bookerId(booking.getBookerId())
+                .end(booking.getEnd())
+                .start(booking.getStart())
+                .build();
+    }
+
+    public static ItemBookingDto toItemBookingDto(ItemBookingView view) {
+        if (view == null) {
+            return null;
+        }
+        return ItemBookingDto.builder()
+                .id(view.getId())
+                .bookerId(view.getBookerId())
+                .end(view.getEnd())
+                .start(view.getStart())
+                .build();
+    }
 }
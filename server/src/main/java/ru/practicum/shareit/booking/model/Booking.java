@@ -21,7 +21,8 @@ import java.time.LocalDateTime;
 @Table(name = "bookings")
 public class Booking {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_id_seq")
+    @SequenceGenerator(name = "bookings_id_seq", sequenceName = "bookings_id_seq", allocationSize = 50)
     private Long id;
     @Column(name = "start_date", nullable = false)
     private LocalDateTime start;
@@ -36,5 +37,13 @@ public class Booking {
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private BookingStatus status;
-
+    /**
+     * Moved forward by BookingPhaseUpdater; a new booking starts as FUTURE, which is where every booking once was.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private BookingPhase phase = BookingPhase.FUTURE;
+    @Version
+    private Long version;
 }
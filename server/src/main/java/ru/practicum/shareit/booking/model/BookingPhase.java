@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.model;
+
+/**
+ * Where a booking stands in time, stamped on the row as of some moment: FUTURE until the start, CURRENT from the
+ * start through the end, PAST after the end. Stamps only move forward and are never ahead of the clock, so a booking
+ * stamped PAST has ended and one stamped CURRENT has started; FUTURE may be behind, see BookingPhaseUpdater.
+ */
+public enum BookingPhase {
+    FUTURE,
+    CURRENT,
+    PAST
+}
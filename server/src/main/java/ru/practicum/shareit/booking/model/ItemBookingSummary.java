@@ -0,0 +1,48 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Last and next booking of an item, denormalized so that item listings don't compute them from the bookings.
+ * The summary holds from the time it was written until its next booking starts, see {@link #isCurrent}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "item_booking_summary")
+public class ItemBookingSummary {
+    @Id
+    private Long itemId;
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "id", column = @Column(name = "last_booking_id")),
+            @AttributeOverride(name = "bookerId", column = @Column(name = "last_booker_id")),
+            @AttributeOverride(name = "start", column = @Column(name = "last_start")),
+            @AttributeOverride(name = "end", column = @Column(name = "last_end"))
+    })
+    private SummarizedBooking last;
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "id", column = @Column(name = "next_booking_id")),
+            @AttributeOverride(name = "bookerId", column = @Column(name = "next_booker_id")),
+            @AttributeOverride(name = "start", column = @Column(name = "next_start")),
+            @AttributeOverride(name = "end", column = @Column(name = "next_end"))
+    })
+    private SummarizedBooking next;
+
+    /**
+     * Whether last and next are still those at {@code currentTime}: once the next booking has started it is
+     * the last one, until the summary is rolled forward.
+     */
+    public boolean isCurrent(LocalDateTime currentTime) {
+        return next == null || next.getStart().isAfter(currentTime);
+    }
+}
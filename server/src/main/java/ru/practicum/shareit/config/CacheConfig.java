@@ -0,0 +1,14 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * The cache advice wraps the transactional one, so {@code @CacheEvict} runs after the commit
+ * and a concurrent read cannot put the old value back in between.
+ */
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+}
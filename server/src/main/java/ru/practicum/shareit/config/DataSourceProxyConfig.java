@@ -0,0 +1,40 @@
+package ru.practicum.shareit.config;
+
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Wraps the data source so the {@link QueryExecutionListener} beans (slow query log, JDBC spans) see every
+ * statement. Without such beans the data source stays as it is. The proxy unwraps to the pool, so its metrics
+ * and health are not affected.
+ */
+@Configuration
+public class DataSourceProxyConfig {
+    @Bean
+    public static BeanPostProcessor dataSourceProxyPostProcessor(ObjectProvider<QueryExecutionListener> listeners) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                List<QueryExecutionListener> queryListeners = listeners.orderedStream().collect(Collectors.toList());
+                if (queryListeners.isEmpty()) {
+                    return bean;
+                }
+                ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(beanName, (DataSource) bean);
+                queryListeners.forEach(builder::listener);
+                return builder.build();
+            }
+        };
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.query.QueryCountFilter;
+
+/**
+ * Makes {@code @Timed} on beans record timers; the services are annotated at class level,
+ * so every public method gets one, tagged with class and method.
+ */
+@Configuration
+public class MetricsConfig {
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public QueryCountFilter queryCountFilter(MeterRegistry registry) {
+        return new QueryCountFilter(registry);
+    }
+}
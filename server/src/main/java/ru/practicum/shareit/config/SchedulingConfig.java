@@ -0,0 +1,12 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs the {@code @Scheduled} jobs, such as rolling item booking summaries and booking phases forward.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.query.SlowQueryLog;
+import ru.practicum.shareit.query.SlowQueryProperties;
+
+/**
+ * Times every statement for {@link SlowQueryLog}, through the data source proxy of {@link DataSourceProxyConfig}.
+ */
+@Configuration
+@EnableConfigurationProperties(SlowQueryProperties.class)
+@ConditionalOnProperty(name = "shareit.slow-query.enabled", matchIfMissing = true)
+public class SlowQueryConfig {
+    @Bean
+    public SlowQueryLog slowQueryLog(SlowQueryProperties properties) {
+        return new SlowQueryLog(properties);
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.config;
+
+import io.opentelemetry.api.trace.Tracer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.tracing.JdbcSpanListener;
+import ru.practicum.shareit.tracing.OpenTelemetryConfig;
+import ru.practicum.shareit.tracing.ServiceSpanAspect;
+
+/**
+ * OpenTelemetry tracing: a server span per request (continuing the gateway's trace), a span per service method
+ * call and one per JDBC statement under it, so the time of a request splits into gateway, server and database.
+ * The tracer and the request spans are the ones of {@link OpenTelemetryConfig}.
+ */
+@Configuration
+@Import(OpenTelemetryConfig.class)
+@ConditionalOnProperty(name = "shareit.tracing.enabled", matchIfMissing = true)
+public class TracingConfig {
+    @Bean
+    public ServiceSpanAspect serviceSpanAspect(Tracer tracer) {
+        return new ServiceSpanAspect(tracer);
+    }
+
+    @Bean
+    public JdbcSpanListener jdbcSpanListener(Tracer tracer) {
+        return new JdbcSpanListener(tracer);
+    }
+}
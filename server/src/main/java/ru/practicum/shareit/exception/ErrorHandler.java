@@ -1,5 +1,7 @@
 package ru.practicum.shareit.exception;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -35,13 +37,29 @@ public class ErrorHandler {
     }
 
     @ExceptionHandler({
-            UniqueViolationException.class
+            UniqueViolationException.class,
+            ConflictException.class
     })
     @ResponseStatus(HttpStatus.CONFLICT)
     public ErrorResponse handleConflicts(Exception e) {
         return new ErrorResponse(e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleConcurrentUpdate(OptimisticLockingFailureException e) {
+        return new ErrorResponse("The object was changed by another request, reload it and try again");
+    }
+
+    /**
+     * Constraint violations the services did not anticipate, such as a foreign key to a user deleted meanwhile.
+     */
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleIntegrityViolation(DataIntegrityViolationException e) {
+        return new ErrorResponse("The request conflicts with the stored data, reload it and try again");
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleRemaining(Throwable e) {
@@ -1,13 +1,17 @@
 package ru.practicum.shareit.item;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.shareit.item.model.Comment;
 
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    // CommentMapper reads the author's name: fetch authors in the same select, not one by one
+    @EntityGraph(attributePaths = "author")
     List<Comment> findByItemId(Long itemId);
 
+    @EntityGraph(attributePaths = "author")
     List<Comment> findByItemIdIn(List<Long> itemIds);
 
     boolean existsByAuthorIdAndItemId(long authorId, long itemId);
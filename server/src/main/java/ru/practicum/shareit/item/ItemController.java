@@ -1,13 +1,19 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.booking.dto.IntervalDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CreateCommentDto;
 import ru.practicum.shareit.item.dto.GetItemDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.param.PageCursor;
 import ru.practicum.shareit.param.PaginationRequest;
 
+import javax.servlet.http.HttpServletResponse;
+import java.time.LocalDateTime;
 import java.util.List;
 
 
@@ -25,15 +31,23 @@ public class ItemController {
 
     @GetMapping("/{id}")
     public GetItemDto getItem(@RequestHeader("X-Sharer-User-Id") long userId,
-                              @PathVariable long id) {
+                              @PathVariable long id,
+                              WebRequest request) {
+        if (request.checkNotModified(itemService.getItemETag(id, userId))) {
+            return null;
+        }
         return itemService.getItemById(id, userId);
     }
 
     @GetMapping
     public List<GetItemDto> getUserItems(@RequestHeader("X-Sharer-User-Id") long userId,
                                          @RequestParam(defaultValue = "0") int from,
-                                         @RequestParam(defaultValue = "10") int size) {
-        return itemService.getItems(userId, new PaginationRequest(from, size));
+                                         @RequestParam(defaultValue = "10") int size,
+                                         @RequestParam(required = false) String after,
+                                         HttpServletResponse response) {
+        List<GetItemDto> items = itemService.getItems(userId, new PaginationRequest(from, size, after));
+        PageCursor.writeNext(response, items, size, i -> PageCursor.of(i.getId()));
+        return items;
     }
 
     @PatchMapping("/{id}")
@@ -50,6 +64,13 @@ public class ItemController {
         return itemService.searchItems(text, new PaginationRequest(from, size));
     }
 
+    @GetMapping("/{id}/availability")
+    public List<IntervalDto> getAvailability(@PathVariable long id,
+                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemService.getAvailability(id, from, to);
+    }
+
     @PostMapping("/{itemId}/comment")
     public CommentDto addCommentToItem(@RequestHeader("X-Sharer-User-Id") long userId,
                                        @PathVariable long itemId,
@@ -3,21 +3,61 @@ package ru.practicum.shareit.item;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.dto.ItemVersionView;
+import ru.practicum.shareit.item.dto.ItemView;
+import ru.practicum.shareit.item.dto.ItemWithBookingSummary;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    List<Item> findAllByOwnerId(long userId, Pageable pageable);
+    @Query("select i as item, s as summary from Item i left join ItemBookingSummary s on s.itemId = i.id " +
+            "where i.owner.id = :userId")
+    List<ItemWithBookingSummary> findAllWithBookingSummaryByOwnerId(@Param("userId") long userId, Pageable pageable);
 
-    @Query(" select i from Item i " +
+    @Query("select i as item, s as summary from Item i left join ItemBookingSummary s on s.itemId = i.id " +
+            "where i.owner.id = :userId and i.id > :id")
+    List<ItemWithBookingSummary> findAllWithBookingSummaryByOwnerIdAndIdGreaterThan(@Param("userId") long userId,
+                                                                                    @Param("id") long id,
+                                                                                    Pageable pageable);
+
+    @Query(" select i.id as id, i.name as name, i.description as description, " +
+            "        i.available as available, i.request.id as requestId " +
+            "   from Item i " +
             "where upper(i.name) like upper(concat('%', ?1, '%')) " +
             " or upper(i.description) like upper(concat('%', ?1, '%'))" +
             "and i.available = true")
-    List<Item> searchItems(String text, Pageable pageable);
+    List<ItemView> searchItems(String text, Pageable pageable);
+
+    @Query("select i.id as id, i.name as name, i.description as description, " +
+            "       i.available as available, i.request.id as requestId " +
+            "  from Item i where i.id in ?1")
+    List<ItemView> findViewsByIdIn(Collection<Long> ids);
 
-    List<Item> findAllByRequestIdIn(Set<Long> requestIds);
+    @Query("select i.id as id, i.name as name, i.description as description, " +
+            "       i.available as available, i.request.id as requestId " +
+            "  from Item i where i.request.id in ?1")
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "item-request-items")
+    })
+    List<ItemView> findAllByRequestIdIn(Set<Long> requestIds);
 
     List<Item> findAllByRequestId(long requestId);
+
+    @Query("select i.version as version, o.id as ownerId, o.version as ownerVersion, " +
+            "       (select count(c) from Comment c where c.item = i) as comments, " +
+            "       (select max(c.id) from Comment c where c.item = i) as lastCommentId, " +
+            "       (select coalesce(sum(a.version), 0) from Comment c join c.author a where c.item = i) " +
+            "         as authorVersions " +
+            "  from Item i join i.owner o where i.id = ?1")
+    Optional<ItemVersionView> findVersionById(long itemId);
+
+    List<Item> findByIdGreaterThan(long id, Pageable pageable);
 }
@@ -1,11 +1,13 @@
 package ru.practicum.shareit.item;
 
+import ru.practicum.shareit.booking.dto.IntervalDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CreateCommentDto;
 import ru.practicum.shareit.item.dto.GetItemDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.param.PaginationRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
@@ -15,9 +17,17 @@ public interface ItemService {
 
     GetItemDto getItemById(long itemId, long userId);
 
+    /**
+     * Entity tag of what {@link #getItemById} shows the user, from versions alone: it changes whenever that view
+     * may have, without loading the item, its comments or bookings.
+     */
+    String getItemETag(long itemId, long userId);
+
     List<GetItemDto> getItems(long userId, PaginationRequest pagRequest);
 
     List<ItemDto> searchItems(String text, PaginationRequest pagRequest);
 
     CommentDto addComment(long itemId, long userId, CreateCommentDto dto);
+
+    List<IntervalDto> getAvailability(long itemId, LocalDateTime from, LocalDateTime to);
 }
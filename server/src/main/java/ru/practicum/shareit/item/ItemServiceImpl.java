@@ -1,13 +1,19 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
+import ru.practicum.shareit.booking.BookingIntervalIndex;
 import ru.practicum.shareit.booking.BookingRepository;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.ItemBookingSummaryRepository;
+import ru.practicum.shareit.booking.ItemBookingSummaryUpdater;
+import ru.practicum.shareit.booking.dto.IntervalDto;
+import ru.practicum.shareit.booking.dto.ItemBookingsVersionView;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
 import ru.practicum.shareit.exception.AccessDeniedException;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
@@ -15,12 +21,17 @@ import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CreateCommentDto;
 import ru.practicum.shareit.item.dto.GetItemDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemVersionView;
+import ru.practicum.shareit.item.dto.ItemWithBookingSummary;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.param.PageCursor;
 import ru.practicum.shareit.param.PaginationRequest;
 import ru.practicum.shareit.param.PaginationRequestConverter;
+import ru.practicum.shareit.query.QueryBudget;
 import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.UserRepository;
@@ -30,34 +41,46 @@ import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Validated
 @RequiredArgsConstructor
+@Timed(value = "shareit.service", histogram = true)
 public class ItemServiceImpl implements ItemService {
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository requestRepository;
+    private final ItemSearchEngine searchEngine;
+    private final BookingIntervalIndex intervalIndex;
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final ItemBookingSummaryUpdater summaryUpdater;
 
+    @QueryBudget(5)
     @Transactional
     @Override
     public ItemDto addItem(long userId, ItemDto itemDto) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("User for item doesn't exist: " + userId));
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("User for item doesn't exist: " + userId);
+        }
+        User user = userRepository.getReferenceById(userId);
         ItemRequest request = null;
         if (itemDto.getRequestId() != null) {
             request = requestRepository.findById(itemDto.getRequestId())
                     .orElseThrow(() -> new NotFoundException("No request with id " + itemDto.getRequestId()));
         }
-        Item item = ItemMapper.toItem(itemDto, user, request);
+        Item item = itemRepository.save(ItemMapper.toItem(itemDto, user, request));
+        summaryUpdater.create(item.getId());
+        searchEngine.index(item);
 
-        return ItemMapper.toItemDto(itemRepository.save(item));
+        return ItemMapper.toItemDto(item);
     }
 
+    @QueryBudget(2)
     @Transactional
     @Override
     public ItemDto updateItem(long itemId, long userId, ItemDto itemDto) {
@@ -65,63 +88,95 @@ public class ItemServiceImpl implements ItemService {
         validate(item, userId);
 
         Item updatedItem = itemRepository.save(applyPatch(itemDto, item));
+        searchEngine.index(updatedItem);
 
         return ItemMapper.toItemDto(updatedItem);
     }
 
+    @QueryBudget(4)
     @Transactional(readOnly = true)
     @Override
     public GetItemDto getItemById(long itemId, long userId) {
         List<Comment> comments = commentRepository.findByItemId(itemId);
-        List<Booking> lastBooking = Collections.emptyList();
-        List<Booking> nextBooking = Collections.emptyList();
         Item item = getItem(itemId);
+        List<ItemBookingView> bookings = Collections.emptyList();
         if (item.getOwner().getId().equals(userId)) {
-            LocalDateTime time = LocalDateTime.now();
-            lastBooking = bookingRepository.findLastBookingsOfItem(itemId, time, Pageable.ofSize(1));
-            nextBooking = bookingRepository.findNextBookingsOfItem(itemId, time, Pageable.ofSize(1));
+            LocalDateTime currentTime = LocalDateTime.now();
+            Optional<ItemBookingSummary> summary = summaryRepository.findById(itemId);
+            if (summary.isPresent() && summary.get().isCurrent(currentTime)) {
+                return ItemMapper.toItemDto(item, summary.get(), comments);
+            }
+            bookings = bookingRepository.findLastAndNextBookingsOfItems(List.of(itemId), currentTime);
+        }
+        return ItemMapper.toItemDto(item, byItem(bookings, true).get(itemId), byItem(bookings, false).get(itemId),
+                comments);
+    }
+
+    @QueryBudget(2)
+    @Transactional(readOnly = true)
+    @Override
+    public String getItemETag(long itemId, long userId) {
+        ItemVersionView item = itemRepository.findVersionById(itemId)
+                .orElseThrow(() -> new NotFoundException("Cannot find item with id " + itemId));
+        String eTag = item.getVersion() + "." + item.getOwnerVersion() + "." + item.getComments() + "."
+                + (item.getLastCommentId() == null ? 0 : item.getLastCommentId()) + "." + item.getAuthorVersions();
+        if (!item.getOwnerId().equals(userId)) {
+            return eTag;
         }
-        return ItemMapper.toItemDto(
-                item,
-                lastBooking.isEmpty() ? null : lastBooking.get(0),
-                nextBooking.isEmpty() ? null : nextBooking.get(0),
-                comments
-        );
+        // the owner sees the last and next booking too: a booking added, changed or started moves them
+        ItemBookingsVersionView bookings = bookingRepository.findVersionOfItemBookings(itemId, LocalDateTime.now());
+        return eTag + "." + bookings.getBookings() + "." + bookings.getVersions() + "." + bookings.getStarted();
     }
 
+    @QueryBudget(3)
     @Transactional(readOnly = true)
     @Override
     public List<GetItemDto> getItems(long userId, PaginationRequest pagRequest) {
-        List<Item> items = itemRepository.findAllByOwnerId(
+        Sort sort = Sort.by(Sort.Direction.ASC, "id");
+        List<ItemWithBookingSummary> items = pagRequest.isKeyset()
+                ? itemRepository.findAllWithBookingSummaryByOwnerIdAndIdGreaterThan(
                 userId,
-                PaginationRequestConverter.toPageable(pagRequest, Sort.by(Sort.Direction.ASC, "id")));
-        List<Long> itemIds = items.stream().map(Item::getId).collect(Collectors.toList());
-        LocalDateTime time = LocalDateTime.now();
-        Map<Long, Booking> lastBookings = bookingRepository.findLastBookingOfItems(itemIds, time).stream()
-                .collect(Collectors.toMap(b -> b.getItem().getId(), Function.identity()));
-        Map<Long, Booking> nextBookings = bookingRepository.findNextBookingOfItems(itemIds, time).stream()
-                .collect(Collectors.toMap(b -> b.getItem().getId(), Function.identity()));
+                PageCursor.decode(pagRequest.getAfter()).getId(),
+                PaginationRequestConverter.toKeysetPageable(pagRequest, sort))
+                : itemRepository.findAllWithBookingSummaryByOwnerId(
+                userId, PaginationRequestConverter.toPageable(pagRequest, sort));
+        LocalDateTime currentTime = LocalDateTime.now();
+        List<Long> itemIds = items.stream().map(i -> i.getItem().getId()).collect(Collectors.toList());
+        // items without a summary, or with one whose next booking has started, read last and next from the bookings
+        List<Long> unsummarizedIds = items.stream()
+                .filter(i -> !isSummarized(i, currentTime))
+                .map(i -> i.getItem().getId())
+                .collect(Collectors.toList());
+        List<ItemBookingView> bookings = unsummarizedIds.isEmpty()
+                ? Collections.emptyList()
+                : bookingRepository.findLastAndNextBookingsOfItems(unsummarizedIds, currentTime);
+        Map<Long, ItemBookingView> lastBookings = byItem(bookings, true);
+        Map<Long, ItemBookingView> nextBookings = byItem(bookings, false);
         Map<Long, List<Comment>> comments = commentRepository.findByItemIdIn(itemIds).stream()
                 .collect(Collectors.groupingBy(c -> c.getItem().getId()));
         return items.stream()
-                .map(i -> ItemMapper.toItemDto(
-                        i,
-                        lastBookings.get(i.getId()),
-                        nextBookings.get(i.getId()),
-                        comments.get(i.getId())))
+                .map(i -> {
+                    Item item = i.getItem();
+                    return isSummarized(i, currentTime)
+                            ? ItemMapper.toItemDto(item, i.getSummary(), comments.get(item.getId()))
+                            : ItemMapper.toItemDto(item, lastBookings.get(item.getId()), nextBookings.get(item.getId()),
+                            comments.get(item.getId()));
+                })
                 .collect(Collectors.toList());
     }
 
+    @QueryBudget(1)
     @Transactional(readOnly = true)
     @Override
     public List<ItemDto> searchItems(String text, PaginationRequest pagRequest) {
-        return itemRepository.searchItems(
+        return searchEngine.search(
                         text, PaginationRequestConverter.toPageable(pagRequest, Sort.by(Sort.Direction.ASC, "id"))
                 ).stream()
                 .map(ItemMapper::toItemDto)
                 .collect(Collectors.toList());
     }
 
+    @QueryBudget(6)
     @Transactional
     @Override
     public CommentDto addComment(long itemId, long userId, CreateCommentDto dto) {
@@ -143,6 +198,24 @@ public class ItemServiceImpl implements ItemService {
         return CommentMapper.toCommentDto(commentRepository.save(comment));
     }
 
+    @QueryBudget(2)
+    @Transactional(readOnly = true)
+    @Override
+    public List<IntervalDto> getAvailability(long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!to.isAfter(from)) {
+            throw new BadRequestException("Availability period must end after it starts");
+        }
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException("Cannot find item with id " + itemId);
+        }
+        // finished bookings are not indexed, so the past is never reported as free
+        LocalDateTime now = LocalDateTime.now();
+        if (!to.isAfter(now)) {
+            return Collections.emptyList();
+        }
+        return intervalIndex.findFree(itemId, from.isBefore(now) ? now : from, to);
+    }
+
     private Item applyPatch(ItemDto itemDto, Item item) {
         String name = itemDto.getName();
         String description = itemDto.getDescription();
@@ -155,9 +228,20 @@ public class ItemServiceImpl implements ItemService {
                 .available(isAvailable != null ? isAvailable : item.isAvailable())
                 .owner(item.getOwner())
                 .request(item.getRequest())
+                .version(item.getVersion())
                 .build();
     }
 
+    private static boolean isSummarized(ItemWithBookingSummary item, LocalDateTime currentTime) {
+        return item.getSummary() != null && item.getSummary().isCurrent(currentTime);
+    }
+
+    private Map<Long, ItemBookingView> byItem(List<ItemBookingView> bookings, boolean last) {
+        return bookings.stream()
+                .filter(b -> b.getLast() == last)
+                .collect(Collectors.toMap(ItemBookingView::getItemId, Function.identity()));
+    }
+
     private void validate(Item item, long userId) {
         if (item.getOwner().getId() != userId) {
             throw new AccessDeniedException("User don't have access to the item");
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.item.dto;
+
+/**
+ * What {@link GetItemDto} changes with apart from bookings: the item's version and its comments. Comments are only
+ * ever added, but not in id order: ids come from blocks each instance takes from the sequence, so one added later
+ * can get a lower id than the latest. Their number changes with every comment, the latest id when the same
+ * number is deleted and added. The users involved are versioned too. Read by
+ * {@link ru.practicum.shareit.item.ItemRepository#findVersionById}.
+ */
+public interface ItemVersionView {
+    Long getVersion();
+
+    Long getOwnerId();
+
+    Long getOwnerVersion();
+
+    Long getComments();
+
+    Long getLastCommentId();
+
+    /**
+     * The versions of the comment authors, whose names the comments show, summed: versions only grow, so the sum
+     * grows with any of them, while their maximum stays put when an author below it is renamed.
+     */
+    Long getAuthorVersions();
+}
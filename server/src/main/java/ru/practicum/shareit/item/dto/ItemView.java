@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.dto;
+
+/**
+ * Closed projection over the item columns {@link ItemDto} needs; owner and request are not joined.
+ */
+public interface ItemView {
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    Boolean getAvailable();
+
+    Long getRequestId();
+}
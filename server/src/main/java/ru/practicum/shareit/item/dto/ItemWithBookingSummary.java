@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.dto;
+
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.item.model.Item;
+
+/**
+ * An owner's item with its booking summary, null for items that have none.
+ */
+public interface ItemWithBookingSummary {
+    Item getItem();
+
+    ItemBookingSummary getSummary();
+}
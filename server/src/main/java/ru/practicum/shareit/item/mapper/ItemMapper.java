@@ -3,9 +3,12 @@ package ru.practicum.shareit.item.mapper;
 import lombok.NonNull;
 import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
 import ru.practicum.shareit.item.dto.GetItemDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemView;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.ItemRequest;
@@ -26,6 +29,16 @@ public class ItemMapper {
                 .build();
     }
 
+    public static ItemDto toItemDto(@NonNull ItemView item) {
+        return ItemDto.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .requestId(item.getRequestId())
+                .build();
+    }
+
     public static GetItemDto toItemDto(@NonNull Item item, Booking lastBooking, Booking nextBooking, List<Comment> comments) {
         return GetItemDto.builder()
                 .id(item.getId())
@@ -38,6 +51,31 @@ public class ItemMapper {
                 .build();
     }
 
+    public static GetItemDto toItemDto(@NonNull Item item, ItemBookingView lastBooking, ItemBookingView nextBooking,
+                                       List<Comment> comments) {
+        return GetItemDto.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.isAvailable())
+                .lastBooking(BookingMapper.toItemBookingDto(lastBooking))
+                .nextBooking(BookingMapper.toItemBookingDto(nextBooking))
+                .comments(comments == null ? null : comments.stream().map(CommentMapper::toCommentDto).collect(Collectors.toList()))
+                .build();
+    }
+
+    public static GetItemDto toItemDto(@NonNull Item item, @NonNull ItemBookingSummary summary, List<Comment> comments) {
+        return GetItemDto.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.isAvailable())
+                .lastBooking(BookingMapper.toItemBookingDto(summary.getLast()))
+                .nextBooking(BookingMapper.toItemBookingDto(summary.getNext()))
+                .comments(comments == null ? null : comments.stream().map(CommentMapper::toCommentDto).collect(Collectors.toList()))
+                .build();
+    }
+
     public static Item toItem(@NonNull ItemDto itemDto, @NonNull User user, ItemRequest itemRequest) {
         return Item.builder()
                 .name(itemDto.getName())
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemView;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+/**
+ * Delegates to the database. On PostgreSQL the like-predicates are served by the
+ * pg_trgm GIN indexes from the PostgreSQL migrations.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "repository", matchIfMissing = true)
+@RequiredArgsConstructor
+public class RepositoryItemSearchEngine implements ItemSearchEngine {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<ItemView> search(String text, Pageable pageable) {
+        return itemRepository.searchItems(text, pageable);
+    }
+
+    @Override
+    public void index(Item item) {
+    }
+}
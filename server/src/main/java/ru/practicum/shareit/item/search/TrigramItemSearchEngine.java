@@ -0,0 +1,170 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemView;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-process trigram index over item names and descriptions. Candidates are taken from the
+ * shortest posting list and verified against the indexed text, so results match a substring search.
+ * Queries shorter than a trigram fall back to the database.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "trigram")
+@RequiredArgsConstructor
+@Slf4j
+public class TrigramItemSearchEngine implements ItemSearchEngine {
+    private static final int GRAM_LENGTH = 3;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private final Map<Long, IndexedItem> documents = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long lastId = 0;
+        List<Item> batch;
+        do {
+            batch = itemRepository.findByIdGreaterThan(lastId,
+                    PageRequest.of(0, REBUILD_BATCH_SIZE, Sort.by(Sort.Direction.ASC, "id")));
+            batch.forEach(i -> put(IndexedItem.of(i)));
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+        log.info("Item search index built: {} items, {} trigrams", documents.size(), postings.size());
+    }
+
+    @Override
+    public List<ItemView> search(String text, Pageable pageable) {
+        String query = normalize(text);
+        if (query.length() < GRAM_LENGTH) {
+            return itemRepository.searchItems(text, pageable);
+        }
+        List<Set<Long>> lists = gramsOf(query).stream()
+                .map(g -> postings.getOrDefault(g, Collections.emptySet()))
+                .sorted(Comparator.comparingInt(Set::size))
+                .collect(Collectors.toList());
+
+        List<Long> ids = new ArrayList<>(pageable.getPageSize());
+        long skip = pageable.getOffset();
+        for (Long id : lists.get(0)) {
+            IndexedItem document = documents.get(id);
+            if (document == null || !document.matches(query) || !containedInAll(id, lists)) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            ids.add(id);
+            if (ids.size() == pageable.getPageSize()) {
+                break;
+            }
+        }
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, ItemView> items = itemRepository.findViewsByIdIn(ids).stream()
+                .collect(Collectors.toMap(ItemView::getId, Function.identity()));
+        return ids.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void index(Item item) {
+        IndexedItem document = IndexedItem.of(item);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(document);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(document);
+            }
+        });
+    }
+
+    private synchronized void put(IndexedItem document) {
+        IndexedItem previous = documents.put(document.id, document);
+        Set<String> newGrams = document.grams();
+        if (previous != null) {
+            for (String gram : previous.grams()) {
+                if (!newGrams.contains(gram)) {
+                    Set<Long> ids = postings.get(gram);
+                    if (ids != null) {
+                        ids.remove(document.id);
+                    }
+                }
+            }
+        }
+        for (String gram : newGrams) {
+            postings.computeIfAbsent(gram, g -> new ConcurrentSkipListSet<>()).add(document.id);
+        }
+    }
+
+    private static boolean containedInAll(Long id, List<Set<Long>> lists) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toUpperCase();
+    }
+
+    private static Set<String> gramsOf(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    @RequiredArgsConstructor
+    private static class IndexedItem {
+        private final Long id;
+        private final String name;
+        private final String description;
+        private final boolean available;
+
+        static IndexedItem of(Item item) {
+            return new IndexedItem(item.getId(), normalize(item.getName()), normalize(item.getDescription()),
+                    item.isAvailable());
+        }
+
+        boolean matches(String query) {
+            return available && (name.contains(query) || description.contains(query));
+        }
+
+        Set<String> grams() {
+            Set<String> grams = gramsOf(name);
+            grams.addAll(gramsOf(description));
+            return grams;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.param;
+
+import lombok.EqualsAndHashCode;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Page request starting at an arbitrary row instead of a multiple of the page size.
+ */
+@EqualsAndHashCode(callSuper = true)
+public class OffsetPageRequest extends PageRequest {
+    private final long offset;
+
+    public OffsetPageRequest(long offset, int size, Sort sort) {
+        super((int) (offset / size), size, sort);
+        this.offset = offset;
+    }
+
+    @Override
+    public long getOffset() {
+        return offset;
+    }
+}
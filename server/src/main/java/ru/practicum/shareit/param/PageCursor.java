@@ -0,0 +1,64 @@
+package ru.practicum.shareit.param;
+
+import lombok.Value;
+import ru.practicum.shareit.exception.BadRequestException;
+
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Opaque keyset position: the sort key of the last returned row plus its id as a tie-breaker.
+ */
+@Value
+public class PageCursor {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String SEPARATOR = "_";
+
+    LocalDateTime position;
+    long id;
+
+    public static PageCursor of(long id) {
+        return new PageCursor(null, id);
+    }
+
+    public static PageCursor of(LocalDateTime position, long id) {
+        return new PageCursor(position, id);
+    }
+
+    public String encode() {
+        String raw = position == null ? String.valueOf(id) : position + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                return of(Long.parseLong(raw));
+            }
+            return of(LocalDateTime.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid page cursor: " + token);
+        }
+    }
+
+    public static PageCursor decodePositioned(String token) {
+        PageCursor cursor = decode(token);
+        if (cursor.getPosition() == null) {
+            throw new BadRequestException("Page cursor must contain a sort position: " + token);
+        }
+        return cursor;
+    }
+
+    public static <T> void writeNext(HttpServletResponse response, List<T> page, int size, Function<T, PageCursor> cursor) {
+        if (!page.isEmpty() && page.size() == size) {
+            response.setHeader(NEXT_CURSOR_HEADER, cursor.apply(page.get(page.size() - 1)).encode());
+        }
+    }
+}
@@ -8,4 +8,13 @@ import lombok.Data;
 public class PaginationRequest {
     private int from;
     private int size;
+    private String after;
+
+    public PaginationRequest(int from, int size) {
+        this(from, size, null);
+    }
+
+    public boolean isKeyset() {
+        return after != null;
+    }
 }
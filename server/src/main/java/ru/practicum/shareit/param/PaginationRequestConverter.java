@@ -8,6 +8,13 @@ import org.springframework.data.domain.Sort;
 @UtilityClass
 public class PaginationRequestConverter {
     public static Pageable toPageable(PaginationRequest pagRequest, Sort sort) {
+        if (pagRequest.getFrom() % pagRequest.getSize() != 0) {
+            return new OffsetPageRequest(pagRequest.getFrom(), pagRequest.getSize(), sort);
+        }
         return PageRequest.of(pagRequest.getFrom() / pagRequest.getSize(), pagRequest.getSize(), sort);
     }
+
+    public static Pageable toKeysetPageable(PaginationRequest pagRequest, Sort sort) {
+        return PageRequest.of(0, pagRequest.getSize(), sort);
+    }
 }
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.query;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The most SQL statements a service method may run, however many rows it handles. Going over it usually
+ * means a lazy association is loaded row by row. See {@link QueryBudgetAspect}. Batch methods have none:
+ * they check or write entry by entry, bounded by the batch size.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+    int value();
+}
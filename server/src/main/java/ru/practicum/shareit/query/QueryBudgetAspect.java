@@ -0,0 +1,48 @@
+package ru.practicum.shareit.query;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Checks {@link QueryBudget}s. An overrun is logged and counted as {@code shareit.query.budget.exceeded};
+ * with {@code shareit.query-budget.enforce=true} (the test profile) it fails the call instead.
+ * <p>
+ * Runs outside the transaction, so the statements of the flush on commit count too.
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@RequiredArgsConstructor
+public class QueryBudgetAspect {
+    private final MeterRegistry meterRegistry;
+    @Value("${shareit.query-budget.enforce:false}")
+    private boolean enforce;
+
+    @Around("@annotation(budget)")
+    public Object checkBudget(ProceedingJoinPoint joinPoint, QueryBudget budget) throws Throwable {
+        long before = QueryCounter.count();
+        Object result = joinPoint.proceed();
+        long statements = QueryCounter.count() - before;
+        if (statements > budget.value()) {
+            String method = joinPoint.getSignature().getDeclaringType().getSimpleName() + "."
+                    + joinPoint.getSignature().getName();
+            String message = String.format("%s ran %d SQL statements, its budget is %d",
+                    method, statements, budget.value());
+            if (enforce) {
+                throw new IllegalStateException(message);
+            }
+            log.warn(message);
+            meterRegistry.counter("shareit.query.budget.exceeded", "method", method).increment();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.query;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares, per thread. Hibernate instantiates it from
+ * {@code hibernate.session_factory.statement_inspector}, so the count is static: the difference of two
+ * {@link #count()} calls on one thread is the number of statements run in between.
+ */
+public class QueryCounter implements StatementInspector {
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    public static long count() {
+        return COUNT.get()[0];
+    }
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+}
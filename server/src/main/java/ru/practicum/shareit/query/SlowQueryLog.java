@@ -0,0 +1,62 @@
+package ru.practicum.shareit.query;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Counts statements slower than the threshold as {@code shareit.sql.slow} and logs a sample of them at WARN,
+ * without parameters. Bound parameters are traced on demand: set org.hibernate.type.descriptor.sql.BasicBinder
+ * to TRACE through /actuator/loggers.
+ * <p>
+ * A meter binder rather than a user of the registry: the registry itself binds data source metrics, and the data
+ * source needs this log. Statements before the binding (migrations) are only logged.
+ */
+@Slf4j
+public class SlowQueryLog implements QueryExecutionListener, MeterBinder {
+    private final long thresholdMillis;
+    private final double sampleRate;
+    private volatile Counter slowQueries;
+
+    public SlowQueryLog(SlowQueryProperties properties) {
+        thresholdMillis = properties.getThreshold().toMillis();
+        sampleRate = properties.getSampleRate();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        slowQueries = Counter.builder("shareit.sql.slow")
+                .description("Statements slower than shareit.slow-query.threshold")
+                .register(registry);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+        if (execution.getElapsedTime() < thresholdMillis) {
+            return;
+        }
+        Counter counter = slowQueries;
+        if (counter != null) {
+            counter.increment();
+        }
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        log.warn("Slow SQL, {} ms{}: {}",
+                execution.getElapsedTime(),
+                execution.isBatch() ? " for a batch of " + execution.getBatchSize() : "",
+                queries.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; ")));
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.query;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of {@link SlowQueryLog}.
+ */
+@Data
+@ConfigurationProperties(prefix = "shareit.slow-query")
+public class SlowQueryProperties {
+    private boolean enabled = true;
+
+    /**
+     * Statements (or JDBC batches) running at least this long are slow.
+     */
+    private Duration threshold = Duration.ofMillis(200);
+
+    /**
+     * Share of the slow statements that are logged, from 0 to 1; all of them are counted.
+     */
+    private double sampleRate = 1.0;
+}
@@ -2,10 +2,12 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.param.PageCursor;
 import ru.practicum.shareit.param.PaginationRequest;
 import ru.practicum.shareit.request.dto.CreateRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
+import javax.servlet.http.HttpServletResponse;
 import java.util.List;
 
 @RestController
@@ -28,8 +30,13 @@ public class ItemRequestController {
     @GetMapping("/all")
     public List<ItemRequestDto> getAllRequests(@RequestHeader("X-Sharer-User-Id") long userId,
                                                @RequestParam(defaultValue = "0") int from,
-                                               @RequestParam(defaultValue = "10") int size) {
-        return itemRequestService.getAllRequests(userId, new PaginationRequest(from, size));
+                                               @RequestParam(defaultValue = "10") int size,
+                                               @RequestParam(required = false) String after,
+                                               HttpServletResponse response) {
+        List<ItemRequestDto> requests = itemRequestService.getAllRequests(userId,
+                new PaginationRequest(from, size, after));
+        PageCursor.writeNext(response, requests, size, r -> PageCursor.of(r.getCreated(), r.getId()));
+        return requests;
     }
 
     @GetMapping("/{requestId}")
@@ -3,12 +3,20 @@ package ru.practicum.shareit.request;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.request.dto.ItemRequestView;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
-    List<ItemRequest> findAllByRequestorId(long userId, Sort sort);
+    List<ItemRequestView> findAllByRequestorId(long userId, Sort sort);
 
-    List<ItemRequest> findAllByRequestorIdNot(long userId, Pageable pageable);
+    List<ItemRequestView> findAllByRequestorIdNot(long userId, Pageable pageable);
+
+    @Query("select r.id as id, r.description as description, r.created as created from ItemRequest r " +
+            "where r.requestor.id <> ?1 " +
+            "  and (r.created < ?2 or (r.created = ?2 and r.id < ?3))")
+    List<ItemRequestView> findAllByRequestorIdNotAfter(long userId, LocalDateTime created, long id, Pageable pageable);
 }
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.request;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
@@ -7,11 +8,15 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemView;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.param.PageCursor;
 import ru.practicum.shareit.param.PaginationRequest;
 import ru.practicum.shareit.param.PaginationRequestConverter;
+import ru.practicum.shareit.query.QueryBudget;
 import ru.practicum.shareit.request.dto.CreateRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestView;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.UserRepository;
@@ -26,11 +31,16 @@ import java.util.stream.Collectors;
 @Service
 @Validated
 @RequiredArgsConstructor
+@Timed(value = "shareit.service", histogram = true)
 public class ItemRequestServiceImpl implements ItemRequestService {
+    private static final Sort CREATED_DESC = Sort.by(Sort.Direction.DESC, "created")
+            .and(Sort.by(Sort.Direction.DESC, "id"));
+
     private final UserRepository userRepository;
     private final ItemRequestRepository requestRepository;
     private final ItemRepository itemRepository;
 
+    @QueryBudget(3)
     @Transactional
     @Override
     public ItemRequestDto addRequest(long userId, CreateRequestDto dto) {
@@ -39,11 +49,12 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return ItemRequestMapper.toDto(requestRepository.save(req), new ArrayList<>());
     }
 
+    @QueryBudget(3)
     @Transactional(readOnly = true)
     @Override
     public List<ItemRequestDto> getUserRequests(long userId) {
         getUser(userId);
-        List<ItemRequest> requests = requestRepository.findAllByRequestorId(
+        List<ItemRequestView> requests = requestRepository.findAllByRequestorId(
                 userId,
                 Sort.by(Sort.Direction.DESC, "created")
         );
@@ -51,18 +62,31 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return makeItemRequestDtoList(requests);
     }
 
+    @QueryBudget(3)
     @Transactional(readOnly = true)
     @Override
     public List<ItemRequestDto> getAllRequests(long userId, PaginationRequest pagRequest) {
         getUser(userId);
-        List<ItemRequest> requests = requestRepository.findAllByRequestorIdNot(
-                userId,
-                PaginationRequestConverter.toPageable(pagRequest, Sort.by(Sort.Direction.DESC, "created"))
-        );
+        List<ItemRequestView> requests;
+        if (pagRequest.isKeyset()) {
+            PageCursor cursor = PageCursor.decodePositioned(pagRequest.getAfter());
+            requests = requestRepository.findAllByRequestorIdNotAfter(
+                    userId,
+                    cursor.getPosition(),
+                    cursor.getId(),
+                    PaginationRequestConverter.toKeysetPageable(pagRequest, CREATED_DESC)
+            );
+        } else {
+            requests = requestRepository.findAllByRequestorIdNot(
+                    userId,
+                    PaginationRequestConverter.toPageable(pagRequest, CREATED_DESC)
+            );
+        }
 
         return makeItemRequestDtoList(requests);
     }
 
+    @QueryBudget(3)
     @Transactional(readOnly = true)
     @Override
     public ItemRequestDto getRequest(long userId, long requestId) {
@@ -74,13 +98,13 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return ItemRequestMapper.toDto(request, items);
     }
 
-    private List<ItemRequestDto> makeItemRequestDtoList(List<ItemRequest> requests) {
+    private List<ItemRequestDto> makeItemRequestDtoList(List<ItemRequestView> requests) {
         Set<Long> requestIds = requests.stream()
-                .map(ItemRequest::getId)
+                .map(ItemRequestView::getId)
                 .collect(Collectors.toSet());
-        List<Item> items = itemRepository.findAllByRequestIdIn(requestIds);
-        Map<Long, List<Item>> reqIdToItems = items.stream()
-                .collect(Collectors.groupingBy(i -> i.getRequest().getId()));
+        List<ItemView> items = itemRepository.findAllByRequestIdIn(requestIds);
+        Map<Long, List<ItemView>> reqIdToItems = items.stream()
+                .collect(Collectors.groupingBy(ItemView::getRequestId));
 
         return requests.stream()
                 .map(r -> ItemRequestMapper.toDto(r, reqIdToItems.getOrDefault(r.getId(), new ArrayList<>())))
@@ -88,7 +112,9 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     }
 
     private User getUser(long userId) {
-        return userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("User for item doesn't exist: " + userId));
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("User for item doesn't exist: " + userId);
+        }
+        return userRepository.getReferenceById(userId);
     }
 }
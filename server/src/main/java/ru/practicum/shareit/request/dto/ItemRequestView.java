@@ -0,0 +1,14 @@
+package ru.practicum.shareit.request.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Closed projection over the request columns {@link ItemRequestDto} needs; the requestor is not loaded.
+ */
+public interface ItemRequestView {
+    Long getId();
+
+    String getDescription();
+
+    LocalDateTime getCreated();
+}
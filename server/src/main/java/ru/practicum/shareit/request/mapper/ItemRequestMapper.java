@@ -1,10 +1,12 @@
 package ru.practicum.shareit.request.mapper;
 
 import lombok.experimental.UtilityClass;
+import ru.practicum.shareit.item.dto.ItemView;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.dto.CreateRequestDto;
 import ru.practicum.shareit.request.dto.GetItemRequestItemDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestView;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
@@ -31,6 +33,17 @@ public class ItemRequestMapper {
                 .build();
     }
 
+    public static ItemRequestDto toDto(ItemRequestView req, List<ItemView> items) {
+        return ItemRequestDto.builder()
+                .id(req.getId())
+                .description(req.getDescription())
+                .created(req.getCreated())
+                .items(items.stream()
+                        .map(ItemRequestMapper::itemToGetItemsRequestDto)
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
     private static List<GetItemRequestItemDto> itemsToGetItemRequestDto(List<Item> items) {
         return items.stream()
                 .map(ItemRequestMapper::itemToGetItemsRequestDto)
@@ -46,4 +59,14 @@ public class ItemRequestMapper {
                 .id(item.getId())
                 .build();
     }
+
+    private static GetItemRequestItemDto itemToGetItemsRequestDto(ItemView item) {
+        return GetItemRequestItemDto.builder()
+                .name(item.getName())
+                .available(item.getAvailable())
+                .requestId(item.getRequestId())
+                .description(item.getDescription())
+                .id(item.getId())
+                .build();
+    }
 }
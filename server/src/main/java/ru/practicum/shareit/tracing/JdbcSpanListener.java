@@ -0,0 +1,70 @@
+package ru.practicum.shareit.tracing;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import lombok.RequiredArgsConstructor;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * A span per JDBC statement or batch, named after its operation (SELECT, INSERT, ...) and holding the SQL without
+ * parameters. Statements run outside a trace, such as the migrations, get none.
+ */
+@RequiredArgsConstructor
+public class JdbcSpanListener implements QueryExecutionListener {
+    private static final String SPAN = JdbcSpanListener.class.getName();
+    private static final AttributeKey<String> DB_STATEMENT = AttributeKey.stringKey("db.statement");
+    private static final AttributeKey<Long> DB_BATCH_SIZE = AttributeKey.longKey("db.batch_size");
+
+    private final Tracer tracer;
+
+    @Override
+    public void beforeQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+        if (!Span.current().getSpanContext().isValid()) {
+            return;
+        }
+        Span span = tracer.spanBuilder(operation(queries))
+                .setSpanKind(SpanKind.CLIENT)
+                .startSpan();
+        execution.addCustomValue(SPAN, span);
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+        Span span = execution.getCustomValue(SPAN, Span.class);
+        if (span == null) {
+            return;
+        }
+        if (span.isRecording()) {
+            span.setAttribute(DB_STATEMENT, queries.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; ")));
+            if (execution.isBatch()) {
+                span.setAttribute(DB_BATCH_SIZE, (long) execution.getBatchSize());
+            }
+            if (!execution.isSuccess()) {
+                span.recordException(execution.getThrowable());
+                span.setStatus(StatusCode.ERROR);
+            }
+        }
+        span.end();
+    }
+
+    private static String operation(List<QueryInfo> queries) {
+        if (queries.isEmpty()) {
+            return "JDBC";
+        }
+        String sql = queries.get(0).getQuery().stripLeading();
+        int end = 0;
+        while (end < sql.length() && Character.isLetter(sql.charAt(end))) {
+            end++;
+        }
+        return end == 0 ? "JDBC" : sql.substring(0, end).toUpperCase(Locale.ROOT);
+    }
+}
@@ -1,9 +1,22 @@
 package ru.practicum.shareit.user;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.shareit.user.model.User;
 
 
 public interface UserRepository extends JpaRepository<User, Long> {
+    String CACHE = "users";
 
+    /**
+     * Only positive answers are cached: a user created later is seen at once,
+     * and {@link UserServiceImpl} evicts the entry when the user is deleted.
+     * <p>
+     * A check that read the user before the deletion committed can still put {@code true} back after the eviction.
+     * The entry then lives until it expires (spring.cache.caffeine.spec); meanwhile writes referring to the user fail
+     * on the foreign keys with 409 and lists of the user come back empty.
+     */
+    @Cacheable(cacheNames = CACHE, key = "#p0", unless = "!#result")
+    @Override
+    boolean existsById(Long id);
 }
@@ -1,12 +1,15 @@
 package ru.practicum.shareit.user;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.UniqueViolationException;
+import ru.practicum.shareit.query.QueryBudget;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
@@ -17,16 +20,19 @@ import java.util.stream.Collectors;
 @Service
 @Validated
 @RequiredArgsConstructor
+@Timed(value = "shareit.service", histogram = true)
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
 
+    @QueryBudget(2)
     @Transactional
     @Override
     public UserDto createUser(UserDto user) {
 
         User newUser;
         try {
-            newUser = userRepository.save(UserMapper.toUser(user));
+            // flushed here: with sequence ids the insert would otherwise wait for the commit
+            newUser = userRepository.saveAndFlush(UserMapper.toUser(user));
         } catch (DataIntegrityViolationException e) {
             throw new UniqueViolationException("User already exists");
         }
@@ -34,6 +40,8 @@ public class UserServiceImpl implements UserService {
         return UserMapper.toUserDto(newUser);
     }
 
+    @CacheEvict(cacheNames = UserRepository.CACHE, key = "#id")
+    @QueryBudget(2)
     @Transactional
     @Override
     public UserDto updateUser(long id, UserDto userDto) {
@@ -42,6 +50,7 @@ public class UserServiceImpl implements UserService {
         return UserMapper.toUserDto(userRepository.save(applyPatch(userDto, storedUser)));
     }
 
+    @QueryBudget(1)
     @Transactional(readOnly = true)
     @Override
     public UserDto findUserById(long id) {
@@ -50,6 +59,7 @@ public class UserServiceImpl implements UserService {
         return UserMapper.toUserDto(user);
     }
 
+    @QueryBudget(1)
     @Transactional(readOnly = true)
     @Override
     public List<UserDto> getAllUsers() {
@@ -58,7 +68,9 @@ public class UserServiceImpl implements UserService {
                 .collect(Collectors.toList());
     }
 
+    @CacheEvict(cacheNames = UserRepository.CACHE, key = "#id")
     @Override
+    @QueryBudget(2)
     @Transactional
     public void deleteUserById(long id) {
         userRepository.deleteById(id);
@@ -72,6 +84,7 @@ public class UserServiceImpl implements UserService {
                 .id(storedUser.getId())
                 .email(patchEmail != null ? patchEmail : storedUser.getEmail())
                 .name(patchName != null ? patchName : storedUser.getName())
+                .version(storedUser.getVersion())
                 .build();
     }
 
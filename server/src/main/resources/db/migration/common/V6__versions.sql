@@ -0,0 +1,6 @@
+-- optimistic locking (@Version) of items, bookings and requests; the ETags of GET /items/{id} and
+-- GET /bookings/{id} are derived from them. PostgreSQL 11+ only records a constant default in the
+-- catalog, so the tables are not rewritten
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE requests ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,34 @@
+-- last and next booking of each item as the owner sees them (not rejected, started before or starting after
+-- now), kept by BookingServiceImpl and rolled forward by ItemBookingSummaryUpdater once next_start has passed
+CREATE TABLE IF NOT EXISTS item_booking_summary
+(
+    item_id         bigint PRIMARY KEY REFERENCES items (id),
+    last_booking_id bigint,
+    last_booker_id  bigint,
+    last_start      timestamp without time zone,
+    last_end        timestamp without time zone,
+    next_booking_id bigint,
+    next_booker_id  bigint,
+    next_start      timestamp without time zone,
+    next_end        timestamp without time zone
+);
+
+CREATE INDEX IF NOT EXISTS item_booking_summary_next_start_idx ON item_booking_summary (next_start);
+
+INSERT INTO item_booking_summary (item_id, last_booking_id, last_booker_id, last_start, last_end,
+                                  next_booking_id, next_booker_id, next_start, next_end)
+SELECT i.id, l.id, l.booker_id, l.start_date, l.end_date, n.id, n.booker_id, n.start_date, n.end_date
+FROM items i
+         LEFT JOIN bookings l ON l.id = (SELECT b.id
+                                         FROM bookings b
+                                         WHERE b.item_id = i.id AND b.status <> 'REJECTED'
+                                           AND b.start_date < LOCALTIMESTAMP
+                                         ORDER BY b.start_date DESC, b.id
+                                         LIMIT 1)
+         LEFT JOIN bookings n ON n.id = (SELECT b.id
+                                         FROM bookings b
+                                         WHERE b.item_id = i.id AND b.status <> 'REJECTED'
+                                           AND b.start_date > LOCALTIMESTAMP
+                                         ORDER BY b.start_date, b.id
+                                         LIMIT 1)
+WHERE NOT EXISTS (SELECT 1 FROM item_booking_summary s WHERE s.item_id = i.id);
@@ -0,0 +1,13 @@
+-- time phase of bookings (FUTURE, CURRENT, PAST), moved forward by BookingPhaseUpdater; the CURRENT and FUTURE
+-- state filters look it up by equality instead of ranging over start_date and end_date
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS phase VARCHAR(16) NOT NULL DEFAULT 'FUTURE';
+UPDATE bookings
+   SET phase = CASE WHEN end_date < LOCALTIMESTAMP THEN 'PAST'
+                    WHEN start_date < LOCALTIMESTAMP THEN 'CURRENT'
+                    ELSE 'FUTURE' END;
+
+CREATE INDEX IF NOT EXISTS bookings_booker_phase_start_idx ON bookings (booker_id, phase, start_date DESC);
+CREATE INDEX IF NOT EXISTS bookings_item_phase_start_idx ON bookings (item_id, phase, start_date DESC);
+-- the boundaries still to cross, in the order they come: the queue of the scheduled roll forward
+CREATE INDEX IF NOT EXISTS bookings_phase_start_idx ON bookings (phase, start_date);
+CREATE INDEX IF NOT EXISTS bookings_phase_end_idx ON bookings (phase, end_date);
@@ -0,0 +1,3 @@
+-- optimistic locking (@Version) of users: bookings show their booker and items the names of the comment
+-- authors, so the ETags of GET /items/{id} and GET /bookings/{id} include the versions of those users
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,28 @@
+-- ids come from sequences instead of identity columns, so Hibernate can batch inserts; with the pooled-lo
+-- optimizer one nextval reserves a block of ids as large as the sequence increment, and the column default
+-- keeps plain INSERTs working (they take a whole block each)
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE IF NOT EXISTS users_id_seq INCREMENT BY ${id_allocation_size};
+ALTER SEQUENCE users_id_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM users);
+ALTER TABLE users ALTER COLUMN id SET DEFAULT NEXT VALUE FOR users_id_seq;
+
+ALTER TABLE requests ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE IF NOT EXISTS requests_id_seq INCREMENT BY ${id_allocation_size};
+ALTER SEQUENCE requests_id_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM requests);
+ALTER TABLE requests ALTER COLUMN id SET DEFAULT NEXT VALUE FOR requests_id_seq;
+
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE IF NOT EXISTS items_id_seq INCREMENT BY ${id_allocation_size};
+ALTER SEQUENCE items_id_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM items);
+ALTER TABLE items ALTER COLUMN id SET DEFAULT NEXT VALUE FOR items_id_seq;
+
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE IF NOT EXISTS bookings_id_seq INCREMENT BY ${id_allocation_size};
+ALTER SEQUENCE bookings_id_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM bookings);
+ALTER TABLE bookings ALTER COLUMN id SET DEFAULT NEXT VALUE FOR bookings_id_seq;
+
+ALTER TABLE comments ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE IF NOT EXISTS comments_id_seq INCREMENT BY ${id_allocation_size};
+ALTER SEQUENCE comments_id_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM comments);
+ALTER TABLE comments ALTER COLUMN id SET DEFAULT NEXT VALUE FOR comments_id_seq;
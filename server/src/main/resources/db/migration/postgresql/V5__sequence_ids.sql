@@ -0,0 +1,28 @@
+-- ids come from sequences instead of identity columns, so Hibernate can batch inserts; with the pooled-lo
+-- optimizer one nextval reserves a block of ids as large as the sequence increment, and the column default
+-- keeps plain INSERTs working (they take a whole block each)
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS users_id_seq INCREMENT BY ${id_allocation_size} OWNED BY users.id;
+SELECT setval('users_id_seq', COALESCE(MAX(id), 0) + 1, false) FROM users;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_id_seq');
+
+ALTER TABLE requests ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS requests_id_seq INCREMENT BY ${id_allocation_size} OWNED BY requests.id;
+SELECT setval('requests_id_seq', COALESCE(MAX(id), 0) + 1, false) FROM requests;
+ALTER TABLE requests ALTER COLUMN id SET DEFAULT nextval('requests_id_seq');
+
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS items_id_seq INCREMENT BY ${id_allocation_size} OWNED BY items.id;
+SELECT setval('items_id_seq', COALESCE(MAX(id), 0) + 1, false) FROM items;
+ALTER TABLE items ALTER COLUMN id SET DEFAULT nextval('items_id_seq');
+
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS bookings_id_seq INCREMENT BY ${id_allocation_size} OWNED BY bookings.id;
+SELECT setval('bookings_id_seq', COALESCE(MAX(id), 0) + 1, false) FROM bookings;
+ALTER TABLE bookings ALTER COLUMN id SET DEFAULT nextval('bookings_id_seq');
+
+ALTER TABLE comments ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS comments_id_seq INCREMENT BY ${id_allocation_size} OWNED BY comments.id;
+SELECT setval('comments_id_seq', COALESCE(MAX(id), 0) + 1, false) FROM comments;
+ALTER TABLE comments ALTER COLUMN id SET DEFAULT nextval('comments_id_seq');
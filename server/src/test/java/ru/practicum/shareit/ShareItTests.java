@@ -2,11 +2,15 @@ package ru.practicum.shareit;
 
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingService;
 import ru.practicum.shareit.booking.model.Booking;
@@ -23,12 +27,19 @@ import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @SpringBootTest(properties = "db.name=test2", webEnvironment = SpringBootTest.WebEnvironment.MOCK)
 @AllArgsConstructor(onConstructor_ = @Autowired, access = AccessLevel.PROTECTED)
-@Transactional
+// no test transaction around the methods: the services commit on their own, so their inserts and updates are
+// flushed inside them and count against their @QueryBudget instead of going out at the rollback
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 public class ShareItTests {
+	// children first
+	private static final List<String> TABLES =
+			List.of("comments", "item_booking_summary", "bookings", "items", "requests", "users");
+
 	protected ItemService itemService;
 	protected BookingService bookingService;
 	protected ItemRequestService requestService;
@@ -39,16 +50,27 @@ public class ShareItTests {
 	protected CommentRepository commentRepository;
 
 	@BeforeEach
-	protected void setUp() {
-		User user1 = new User(1L, "name1", "q@mail.ru");
-		User user2 = new User(2L, "name2", "r@mailru");
+	protected void setUp(@Autowired TransactionTemplate transactionTemplate) {
+		transactionTemplate.executeWithoutResult(status -> seed());
+	}
+
+	@AfterEach
+	protected void tearDown(@Autowired JdbcTemplate jdbcTemplate) {
+		for (String table : TABLES) {
+			jdbcTemplate.update("DELETE FROM " + table);
+		}
+	}
+
+	private void seed() {
+		User user1 = new User(1L, "name1", "q@mail.ru", null);
+		User user2 = new User(2L, "name2", "r@mailru", null);
 
 		user1 = userRepository.save(user1);
 		user2 = userRepository.save(user2);
 
-		ItemRequest request1 = new ItemRequest(1L, "desc1", user2, LocalDateTime.now());
-		ItemRequest request2 = new ItemRequest(2L, "desc2", user1, LocalDateTime.now());
-		ItemRequest request3 = new ItemRequest(3L, "desc3", user2, LocalDateTime.now());
+		ItemRequest request1 = new ItemRequest(1L, "desc1", user2, LocalDateTime.now(), null);
+		ItemRequest request2 = new ItemRequest(2L, "desc2", user1, LocalDateTime.now(), null);
+		ItemRequest request3 = new ItemRequest(3L, "desc3", user2, LocalDateTime.now(), null);
 
 		request1 = requestRepository.save(request1);
 		request2 = requestRepository.save(request2);
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+@SpringBootTest(properties = "db.name=test9")
+@DirtiesContext
+public class BookingConcurrencyIT {
+    private static final int THREADS = 8;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void finalizeBookingStatus_whenConcurrent_thenExactlyOneDecides() throws Exception {
+        long ownerId = userService.createUser(UserDto.builder().name("owner").email("owner@race.ru").build()).getId();
+        long bookerId = userService.createUser(UserDto.builder().name("booker").email("booker@race.ru").build()).getId();
+        long itemId = itemService.addItem(ownerId, ItemDto.builder()
+                .name("drill").description("desc").available(true).build()).getId();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        long bookingId = bookingService.addBooking(new BookingCreateDto(itemId, start.plusHours(2), start), bookerId)
+                .getId();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        List<Future<BookingStatus>> decisions = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            boolean approved = i % 2 == 0;
+            decisions.add(pool.submit(() -> {
+                ready.countDown();
+                ready.await();
+                try {
+                    return bookingService.finalizeBookingStatus(bookingId, ownerId, approved).getStatus();
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+            }));
+        }
+        List<BookingStatus> decided = new ArrayList<>();
+        for (Future<BookingStatus> decision : decisions) {
+            BookingStatus status = decision.get();
+            if (status != null) {
+                decided.add(status);
+            }
+        }
+        pool.shutdown();
+
+        assertThat(decided.size(), equalTo(1));
+        Booking booking = bookingRepository.findById(bookingId).orElseThrow();
+        assertThat(booking.getStatus(), equalTo(decided.get(0)));
+        assertThat(booking.getVersion(), equalTo(1L));
+    }
+}
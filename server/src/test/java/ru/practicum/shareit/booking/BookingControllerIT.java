@@ -7,9 +7,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
+import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -19,10 +23,16 @@ import ru.practicum.shareit.user.dto.UserDto;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -112,6 +122,19 @@ public class BookingControllerIT {
                 .andExpect(status().isBadRequest());
     }
 
+    @SneakyThrows
+    @Test
+    void changeBookingStatus_whenChangedConcurrently_thenReturn409() {
+        when(service.finalizeBookingStatus(1L, 2L, true))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Booking.class, 1L));
+
+        mvc.perform(patch("/bookings/{id}?approved=true", 1L)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(userHeader, 2L))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error", is("The object was changed by another request, reload it and try again")));
+    }
+
     @SneakyThrows
     @Test
     void changeBookingStatus_whenSuccessful_returnDto() {
@@ -127,6 +150,48 @@ public class BookingControllerIT {
                 .andExpect(jsonPath("$.booker.name", is("uname")));
     }
 
+    @SneakyThrows
+    @Test
+    void addBookings_thenReturnResultPerEntry() {
+        List<BookingCreateDto> dtos = List.of(
+                new BookingCreateDto(1L, LocalDateTime.now().plusHours(12), LocalDateTime.now()),
+                new BookingCreateDto(9L, LocalDateTime.now().plusHours(12), LocalDateTime.now()));
+        when(service.addBookings(dtos, 2L)).thenReturn(List.of(
+                BookingBatchResultDto.success(dto),
+                BookingBatchResultDto.failure("Item doesn't exist")));
+
+        mvc.perform(post("/bookings/batch")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(userHeader, 2L)
+                        .content(mapper.writeValueAsString(dtos))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].booking.id", is(1L), Long.class))
+                .andExpect(jsonPath("$[0]", not(hasKey("error"))))
+                .andExpect(jsonPath("$[1].error", is("Item doesn't exist")))
+                .andExpect(jsonPath("$[1]", not(hasKey("booking"))));
+    }
+
+    @SneakyThrows
+    @Test
+    void changeBookingStatuses_thenReturnResultPerEntry() {
+        List<BookingStatusUpdateDto> updates = List.of(
+                new BookingStatusUpdateDto(1L, true),
+                new BookingStatusUpdateDto(2L, false));
+        when(service.finalizeBookingStatuses(updates, 2L)).thenReturn(List.of(
+                BookingBatchResultDto.success(dto),
+                BookingBatchResultDto.failure("Status was already considered")));
+
+        mvc.perform(patch("/bookings/status")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(userHeader, 2L)
+                        .content(mapper.writeValueAsString(updates))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].booking.status", is(BookingStatus.APPROVED.name())))
+                .andExpect(jsonPath("$[1].error", is("Status was already considered")));
+    }
+
     @SneakyThrows
     @Test
     void getBooking_whenNotFound_thenReturn404() {
@@ -138,9 +203,24 @@ public class BookingControllerIT {
                 .andExpect(status().isNotFound());
     }
 
+    @SneakyThrows
+    @Test
+    void getBooking_whenETagMatches_thenReturn304WithoutLoading() {
+        when(service.getBookingETag(1L, 1L)).thenReturn("2.1");
+
+        mvc.perform(get("/bookings/{id}", 1L)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("If-None-Match", "\"2.1\"")
+                        .header(userHeader, 1L))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"2.1\""));
+        verify(service, never()).getBookingById(anyLong(), anyLong());
+    }
+
     @SneakyThrows
     @Test
     void getBooking_whenSuccessful_theReturnDto() {
+        when(service.getBookingETag(1L, 1L)).thenReturn("2.1");
         when(service.getBookingById(1L, 1L)).thenReturn(dto);
 
         mvc.perform(get("/bookings/{id}", 1L)
@@ -148,6 +228,7 @@ public class BookingControllerIT {
                         .header(userHeader, 1L))
                 .andExpect(status().isOk())
                 .andDo(print())
+                .andExpect(header().string("ETag", "\"2.1\""))
                 .andExpect(jsonPath("$.id", is(1L), Long.class))
                 .andExpect(jsonPath("$.status", is(BookingStatus.APPROVED.name())))
                 .andExpect(jsonPath("$.item.name", is("name")))
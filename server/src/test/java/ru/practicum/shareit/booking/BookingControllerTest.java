@@ -5,10 +5,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.param.PageCursor;
 import ru.practicum.shareit.param.PaginationRequest;
 import ru.practicum.shareit.user.dto.UserDto;
 
@@ -63,9 +67,10 @@ public class BookingControllerTest {
 
     @Test
     void getBooking() {
+        when(service.getBookingETag(1L, 1L)).thenReturn("0.0");
         when(service.getBookingById(1L, 1L)).thenReturn(dto);
 
-        assertThat(controller.getBooking(1L, 1L), equalTo(dto));
+        assertThat(controller.getBooking(1L, 1L, new ServletWebRequest(new MockHttpServletRequest())), equalTo(dto));
     }
 
     @Test
@@ -73,7 +78,7 @@ public class BookingControllerTest {
         when(service.getBookingsByState(1L, BookingFilterState.CURRENT, new PaginationRequest(0, 10)))
                 .thenReturn(List.of(dto));
 
-        assertThat(controller.getBookingByState(1L, BookingFilterState.CURRENT, 0, 10), equalTo(List.of(dto)));
+        assertThat(controller.getBookingByState(1L, BookingFilterState.CURRENT, 0, 10, null, new MockHttpServletResponse()), equalTo(List.of(dto)));
     }
 
     @Test
@@ -81,6 +86,18 @@ public class BookingControllerTest {
         when(service.getOwnerBookingsByState(1L, BookingFilterState.CURRENT, new PaginationRequest(0, 10)))
                 .thenReturn(List.of(dto));
 
-        assertThat(controller.getOwnerBookingByState(1L, BookingFilterState.CURRENT, 0, 10), equalTo(List.of(dto)));
+        assertThat(controller.getOwnerBookingByState(1L, BookingFilterState.CURRENT, 0, 10, null, new MockHttpServletResponse()), equalTo(List.of(dto)));
+    }
+
+    @Test
+    void getBookingByState_whenPageIsFull_thenSetNextCursor() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(service.getBookingsByState(1L, BookingFilterState.ALL, new PaginationRequest(0, 1, "cursor")))
+                .thenReturn(List.of(dto));
+
+        controller.getBookingByState(1L, BookingFilterState.ALL, 0, 1, "cursor", response);
+
+        assertThat(PageCursor.decode(response.getHeader(PageCursor.NEXT_CURSOR_HEADER)),
+                equalTo(PageCursor.of(dto.getStart(), dto.getId())));
     }
 }
@@ -3,19 +3,30 @@ package ru.practicum.shareit.booking;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import ru.practicum.shareit.ShareItTests;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.CommentRepository;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.param.PaginationRequest;
+import ru.practicum.shareit.query.QueryCounter;
 import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.request.ItemRequestService;
 import ru.practicum.shareit.user.UserRepository;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class BookingIT extends ShareItTests {
     @Autowired
@@ -62,4 +73,73 @@ public class BookingIT extends ShareItTests {
         assertThat(bookings.size(), equalTo(1));
         assertThat(bookings.get(0).getId(), equalTo(2L));
     }
+
+    @Test
+    void addBookingsAndFinalizeStatuses() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<BookingBatchResultDto> created = bookingService.addBookings(List.of(
+                new BookingCreateDto(1L, start.plusHours(1), start),
+                new BookingCreateDto(1L, start.plusHours(2), start.plusHours(1)),
+                new BookingCreateDto(3L, start.plusHours(1), start)), 2L);
+
+        assertThat(created.get(0).getBooking().getStatus(), equalTo(BookingStatus.WAITING));
+        assertThat(created.get(1).getBooking().getStatus(), equalTo(BookingStatus.WAITING));
+        assertThat(created.get(2).getError(), equalTo("Item not available for booking"));
+        assertThat(bookingRepository.count(), equalTo(6L));
+
+        long first = created.get(0).getBooking().getId();
+        long second = created.get(1).getBooking().getId();
+        List<BookingBatchResultDto> finalized = bookingService.finalizeBookingStatuses(List.of(
+                new BookingStatusUpdateDto(first, true),
+                new BookingStatusUpdateDto(second, false),
+                new BookingStatusUpdateDto(4L, true),
+                new BookingStatusUpdateDto(1L, true)), 1L);
+
+        assertThat(finalized.get(0).getBooking().getStatus(), equalTo(BookingStatus.APPROVED));
+        assertThat(finalized.get(1).getBooking().getStatus(), equalTo(BookingStatus.REJECTED));
+        assertThat(finalized.get(2).getBooking().getItem().getName(), equalTo("name3"));
+        assertThat(finalized.get(3).getError(), equalTo("Status was already considered"));
+        assertThat(bookingRepository.findById(second).orElseThrow().getStatus(), equalTo(BookingStatus.REJECTED));
+    }
+
+    @Test
+    void addBookings_whenEntriesOverlap_thenSaveTheOthersWithQueriesIndependentOfBatchSize() {
+        // back-to-back with the stored booking only at the precision the database keeps
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        bookingService.addBooking(new BookingCreateDto(1L, start.plusHours(3), start.plusHours(1)), 2L);
+
+        long before = QueryCounter.count();
+        List<BookingBatchResultDto> created = bookingService.addBookings(List.of(
+                new BookingCreateDto(1L, start.plusHours(1), start),
+                new BookingCreateDto(1L, start.plusHours(4), start.plusHours(2)),
+                new BookingCreateDto(1L, start.plusHours(5), start.plusHours(3)),
+                new BookingCreateDto(1L, start.plusHours(6), start.plusHours(4))), 2L);
+        long queries = QueryCounter.count() - before;
+
+        assertThat(created.get(0).getBooking().getStart(), equalTo(start));
+        assertThat(created.get(1).getError(), equalTo("Item is already booked for this period"));
+        assertThat(created.get(2).getBooking().getStart(), equalTo(start.plusHours(3)));
+        assertThat(created.get(3).getError(), equalTo("Item is already booked for this period"));
+        assertThat(bookingRepository.count(), equalTo(7L));
+
+        before = QueryCounter.count();
+        bookingService.addBookings(List.of(new BookingCreateDto(1L, start.plusHours(8), start.plusHours(7))), 2L);
+        assertThat(QueryCounter.count() - before, equalTo(queries));
+    }
+
+    @Test
+    void getBookingETag_whenStatusOrItemChanges_thenChanges() {
+        String eTag = bookingService.getBookingETag(4L, 2L);
+        assertThat(bookingService.getBookingETag(4L, 1L), equalTo(eTag));
+
+        bookingService.finalizeBookingStatus(4L, 1L, true);
+        String approved = bookingService.getBookingETag(4L, 2L);
+        assertThat(approved, not(equalTo(eTag)));
+
+        itemService.updateItem(3L, 1L, ItemDto.builder().name("hammer").build());
+        assertThat(bookingService.getBookingETag(4L, 2L), not(equalTo(approved)));
+
+        assertThrows(NotFoundException.class, () -> bookingService.getBookingETag(4L, 99L));
+        assertThrows(NotFoundException.class, () -> bookingService.getBookingETag(99L, 1L));
+    }
 }
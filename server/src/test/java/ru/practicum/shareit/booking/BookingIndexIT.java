@@ -0,0 +1,147 @@
+package ru.practicum.shareit.booking;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.config.DataSourceProxyConfig;
+import ru.practicum.shareit.param.PageCursor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * Checks that the booking queries are planned as index lookups instead of table scans. The statements are the ones
+ * the repositories send, captured through the data source proxy and explained with their bound parameters, so the
+ * check follows the queries as they change.
+ */
+@DataJpaTest(properties = "db.name=test4")
+@Import({DataSourceProxyConfig.class, BookingIndexIT.StatementCapture.class})
+public class BookingIndexIT {
+    private static final PageRequest PAGE = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "start"));
+    private static final LocalDateTime NOW = LocalDateTime.of(2023, 1, 1, 12, 0);
+    private static final Pattern FULL_INDEX_SCAN = Pattern.compile("\"BOOKINGS\"[^/]*/\\* PUBLIC\\.\\w+ \\*/");
+
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private StatementCapture statements;
+
+    @BeforeEach
+    void setUp() {
+        statements.clear();
+    }
+
+    @ParameterizedTest
+    @EnumSource(BookingFilterState.class)
+    void findBookerBookings_thenUseIndex(BookingFilterState state) {
+        bookingRepository.findBookerBookings(1L, state, NOW, PAGE);
+        bookingRepository.findBookerBookingsAfter(1L, state, NOW, PageCursor.of(NOW, 10L), 10);
+
+        assertIndexLookups();
+    }
+
+    @ParameterizedTest
+    @EnumSource(BookingFilterState.class)
+    void findOwnerBookings_thenUseIndex(BookingFilterState state) {
+        bookingRepository.findOwnerBookings(1L, state, NOW, PAGE);
+        bookingRepository.findOwnerBookingsAfter(1L, state, NOW, PageCursor.of(NOW, 10L), 10);
+
+        assertIndexLookups();
+    }
+
+    @Test
+    void itemBookingQueries_thenUseIndex() {
+        bookingRepository.findLastAndNextBookingsOfItems(List.of(1L, 2L), NOW);
+        bookingRepository.findEndsOfBookingsStartingBefore(1L, BookingIntervalIndex.ACTIVE_STATUSES, NOW,
+                PageRequest.of(0, 1));
+        bookingRepository.findIntervalsOfItem(1L, Set.of(BookingStatus.WAITING, BookingStatus.APPROVED), NOW);
+        bookingRepository.existsByBookerIdAndItemIdAndEndBefore(1L, 2L, NOW);
+
+        assertIndexLookups();
+    }
+
+    @Test
+    void stampQueries_thenUseIndex() {
+        bookingRepository.stampEndedBefore(NOW);
+        bookingRepository.stampStartedBefore(NOW);
+
+        assertIndexLookups();
+    }
+
+    private void assertIndexLookups() {
+        List<QueryInfo> captured = statements.take();
+        assertThat(captured, not(empty()));
+        for (QueryInfo query : captured) {
+            String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + query.getQuery(), String.class,
+                    parameters(query)));
+
+            assertThat(query.getQuery(), plan, not(containsString("BOOKINGS.tableScan")));
+            // an index without conditions is read whole, in its order
+            assertThat(query.getQuery() + "\n" + plan, FULL_INDEX_SCAN.matcher(plan).find(), equalTo(false));
+        }
+    }
+
+    private static Object[] parameters(QueryInfo query) {
+        if (query.getParametersList().isEmpty()) {
+            return new Object[0];
+        }
+        List<ParameterSetOperation> operations = new ArrayList<>(query.getParametersList().get(0));
+        operations.sort(Comparator.comparing(o -> (Integer) o.getArgs()[0]));
+        return operations.stream()
+                .map(o -> o.getMethod().getName().equals("setNull") ? null : o.getArgs()[1])
+                .toArray();
+    }
+
+    /**
+     * Keeps the statements run against the bookings table, until taken.
+     */
+    static class StatementCapture implements QueryExecutionListener {
+        private final List<QueryInfo> queries = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void beforeQuery(ExecutionInfo execution, List<QueryInfo> queryInfos) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execution, List<QueryInfo> queryInfos) {
+            queryInfos.stream()
+                    .filter(q -> q.getQuery().toLowerCase().contains("bookings"))
+                    .forEach(queries::add);
+        }
+
+        void clear() {
+            queries.clear();
+        }
+
+        List<QueryInfo> take() {
+            List<QueryInfo> taken = new ArrayList<>(queries);
+            queries.clear();
+            return taken;
+        }
+    }
+}
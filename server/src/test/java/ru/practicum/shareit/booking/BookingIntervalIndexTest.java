@@ -0,0 +1,94 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.dto.IntervalDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BookingIntervalIndexTest {
+    private static final LocalDateTime DAY = LocalDateTime.now().plusDays(10).withHour(0).withMinute(0).withSecond(0).withNano(0);
+
+    @Mock
+    private BookingRepository bookingRepository;
+    private final AtomicLong nanos = new AtomicLong();
+    private BookingIntervalIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookingIntervalIndex(bookingRepository, 100, Duration.ofMinutes(1), nanos::get);
+        when(bookingRepository.findIntervalsOfItem(eq(1L), any(), any())).thenReturn(List.of(
+                new IntervalDto(at(8), at(10)),
+                new IntervalDto(at(12), at(14))
+        ));
+    }
+
+    @Test
+    void findFree_thenReturnGapsBetweenBookings() {
+        assertThat(index.findFree(1L, at(0), at(24)), contains(
+                new IntervalDto(at(0), at(8)),
+                new IntervalDto(at(10), at(12)),
+                new IntervalDto(at(14), at(24))
+        ));
+    }
+
+    @Test
+    void findFree_whenPeriodStartsInsideBooking_thenStartAfterIt() {
+        assertThat(index.findFree(1L, at(9), at(13)), contains(new IntervalDto(at(10), at(12))));
+    }
+
+    @Test
+    void findFree_whenPeriodFullyBooked_thenReturnNothing() {
+        assertThat(index.findFree(1L, at(12), at(14)), empty());
+    }
+
+    @Test
+    void add_thenNextLookupSeesBookingWithoutReload() {
+        index.findFree(1L, at(0), at(24));
+
+        index.add(1L, at(10), at(12));
+
+        assertThat(index.findFree(1L, at(0), at(24)), contains(
+                new IntervalDto(at(0), at(8)),
+                new IntervalDto(at(14), at(24))
+        ));
+        verify(bookingRepository, times(1)).findIntervalsOfItem(eq(1L), any(), any());
+    }
+
+    @Test
+    void findFree_whenLoadExpired_thenReadBookingsAgain() {
+        index.findFree(1L, at(0), at(24));
+        when(bookingRepository.findIntervalsOfItem(eq(1L), any(), any())).thenReturn(List.of());
+
+        nanos.addAndGet(Duration.ofSeconds(59).toNanos());
+        assertThat(index.findFree(1L, at(9), at(13)), contains(new IntervalDto(at(10), at(12))));
+        nanos.addAndGet(Duration.ofSeconds(2).toNanos());
+        assertThat(index.findFree(1L, at(9), at(13)), contains(new IntervalDto(at(9), at(13))));
+        verify(bookingRepository, times(2)).findIntervalsOfItem(eq(1L), any(), any());
+    }
+
+    @Test
+    void remove_thenPeriodIsFreeAgain() {
+        index.remove(1L, at(8), at(10));
+
+        assertThat(index.findFree(1L, at(0), at(12)), contains(new IntervalDto(at(0), at(12))));
+    }
+
+    private static LocalDateTime at(int hour) {
+        return DAY.plusHours(hour);
+    }
+}
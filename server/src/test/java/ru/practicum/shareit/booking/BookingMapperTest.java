@@ -26,7 +26,7 @@ public class BookingMapperTest {
             .status(BookingStatus.WAITING)
             .start(LocalDateTime.of(2012, 12, 23, 12, 34))
             .end(LocalDateTime.of(2013, 12, 23, 12, 34))
-            .booker(new User(3L, "nameU", "u@mail.com"))
+            .booker(new User(3L, "nameU", "u@mail.com", null))
             .build();
 
     @Test
@@ -37,7 +37,7 @@ public class BookingMapperTest {
                 .start(booking.getStart())
                 .end(booking.getEnd())
                 .build();
-        User booker = new User(1L, "nameq", "q@mail.com");
+        User booker = new User(1L, "nameq", "q@mail.com", null);
         Item item = Item.builder()
                 .id(1L).build();
 
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.param.PageCursor;
+import ru.practicum.shareit.param.PaginationRequest;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notANumber;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "db.name=test7")
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@DirtiesContext
+public class BookingMetricsIT {
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private BookingPhaseUpdater phaseUpdater;
+
+    @Test
+    void getBookingsByState_thenTimeServiceAndQueryByState() throws Exception {
+        long userId = userService.createUser(UserDto.builder().name("name").email("metrics@mail.ru").build()).getId();
+
+        bookingService.getBookingsByState(userId, BookingFilterState.WAITING, new PaginationRequest(0, 10));
+        bookingService.getOwnerBookingsByState(userId, BookingFilterState.PAST, new PaginationRequest(0, 10,
+                PageCursor.of(LocalDateTime.now(), Long.MAX_VALUE).encode()));
+
+        assertThat(meterRegistry.get("shareit.service")
+                .tag("class", BookingServiceImpl.class.getName())
+                .tag("method", "getBookingsByState")
+                .timer().count(), equalTo(1L));
+        assertThat(meterRegistry.get("shareit.booking.query")
+                .tag("role", "booker").tag("state", "WAITING").tag("paging", "offset")
+                .timer().count(), equalTo(1L));
+        assertThat(meterRegistry.get("shareit.booking.query")
+                .tag("role", "owner").tag("state", "PAST").tag("paging", "keyset")
+                .timer().count(), equalTo(1L));
+
+        mvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "shareit_booking_query_seconds_bucket{paging=\"offset\",role=\"booker\",state=\"WAITING\"")))
+                .andExpect(content().string(containsString("shareit_service_seconds_bucket{")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket{")))
+                .andExpect(content().string(containsString("hibernate_query_executions_total{")))
+                .andExpect(content().string(containsString("hibernate_second_level_cache_requests_total{")))
+                .andExpect(content().string(containsString("shareit_sql_slow_total")));
+    }
+
+    @Test
+    void rollForward_thenResetPhaseLag() throws Exception {
+        Thread.sleep(50);
+        double before = meterRegistry.get("shareit.booking.phase.lag").timeGauge().value(TimeUnit.MILLISECONDS);
+        // measured from the run made when the application became ready, not from startup
+        assertThat(before, not(notANumber()));
+
+        phaseUpdater.rollForward();
+
+        assertThat(meterRegistry.get("shareit.booking.phase.lag").timeGauge().value(TimeUnit.MILLISECONDS),
+                lessThan(before));
+        mvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("shareit_booking_phase_lag_seconds")));
+    }
+}
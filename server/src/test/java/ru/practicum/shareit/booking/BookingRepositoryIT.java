@@ -1,42 +1,54 @@
 package ru.practicum.shareit.booking;
 
 import lombok.AllArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.param.PageCursor;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 
-@DataJpaTest(properties = "db.name=test3")
+@DataJpaTest(properties = {"db.name=test3", "spring.jpa.properties.hibernate.generate_statistics=true"})
 @Transactional
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 @AllArgsConstructor(onConstructor_ = @Autowired)
 public class BookingRepositoryIT {
+    private static final PageRequest PAGE = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "start"));
+
     private BookingRepository bookingRepository;
     private UserRepository userRepository;
     private ItemRepository itemRepository;
+    private TestEntityManager entityManager;
 
     @BeforeEach
     void setUp() {
-        User user1 = new User(1L, "Igor", "e@mail.ru");
-        User user2 = new User(2L, "Petr", "p@goole.com");
-        User user3 = new User(3L, "Valya", "v@wer.com");
+        User user1 = new User(1L, "Igor", "e@mail.ru", null);
+        User user2 = new User(2L, "Petr", "p@goole.com", null);
+        User user3 = new User(3L, "Valya", "v@wer.com", null);
 
         user1 = userRepository.save(user1);
         user2 = userRepository.save(user2);
@@ -108,36 +120,34 @@ public class BookingRepositoryIT {
     }
 
     @Test
-    void findByBookerIdAndStatus() {
-        List<Booking> bookings = bookingRepository.findByBookerIdAndStatus(1L, BookingStatus.APPROVED, PageRequest.of(0, 10));
-
-        assertThat(bookings.size(), equalTo(1));
-        assertThat(bookings.get(0).getId(), equalTo(2L));
-        ///
-        bookings = bookingRepository.findByBookerIdAndStatus(1L, BookingStatus.WAITING, PageRequest.of(0, 10));
+    void findBookerBookings_whenWaiting() {
+        List<BookingView> bookings = bookingRepository.findBookerBookings(1L, BookingFilterState.WAITING, LocalDateTime.now(), PAGE);
 
         assertThat(bookings.size(), equalTo(1));
+        assertThat(bookings.get(0).getId(), equalTo(4L));
+        assertThat(bookings.get(0).getStatus(), equalTo(BookingStatus.WAITING));
     }
 
     @Test
-    void findByBookerIdAndStatusIn() {
-        List<Booking> bookings = bookingRepository.findByBookerIdAndStatusIn(
-                2L,
-                Set.of(BookingStatus.WAITING, BookingStatus.APPROVED),
-                PageRequest.of(0, 10));
+    void findBookerBookings_whenRejected() {
+        List<BookingView> bookings = bookingRepository.findBookerBookings(2L, BookingFilterState.REJECTED, LocalDateTime.now(), PAGE);
 
-        assertThat(bookings.size(), equalTo(2));
-        assertThat(bookings.get(0).getStatus(), anyOf(equalTo(BookingStatus.APPROVED), equalTo(BookingStatus.WAITING)));
-        assertThat(bookings.get(1).getStatus(), anyOf(equalTo(BookingStatus.APPROVED), equalTo(BookingStatus.WAITING)));
+        assertThat(bookings, empty());
     }
 
     @Test
-    void findByBookerId() {
-        List<Booking> bookings = bookingRepository.findByBookerId(2L, PageRequest.of(0, 10));
+    void findBookerBookings_whenAll_thenProjectItemAndBooker() {
+        List<BookingView> bookings = bookingRepository.findBookerBookings(2L, BookingFilterState.ALL, LocalDateTime.now(), PAGE);
 
         assertThat(bookings.size(), equalTo(2));
-        assertThat(bookings.get(0).getBooker().getId(), equalTo(2L));
-        assertThat(bookings.get(1).getBooker().getId(), equalTo(2L));
+        assertThat(bookings.get(0).getId(), equalTo(1L));
+        assertThat(bookings.get(0).getBookerId(), equalTo(2L));
+        assertThat(bookings.get(0).getBookerEmail(), equalTo("p@goole.com"));
+        assertThat(bookings.get(0).getItemId(), equalTo(1L));
+        assertThat(bookings.get(0).getItemName(), equalTo("mane1"));
+        assertThat(bookings.get(0).getItemAvailable(), equalTo(true));
+        assertThat(bookings.get(0).getItemRequestId(), nullValue());
+        assertThat(bookings.get(1).getBookerId(), equalTo(2L));
     }
 
     @Test
@@ -148,38 +158,71 @@ public class BookingRepositoryIT {
     }
 
     @Test
-    void findByBookerIdAndEndIsBefore() {
-        List<Booking> bookings = bookingRepository.findByBookerIdAndEndIsBefore(1L, LocalDateTime.now(), PageRequest.of(0, 10));
+    void findBookerBookings_whenPast() {
+        List<BookingView> bookings = bookingRepository.findBookerBookings(1L, BookingFilterState.PAST, LocalDateTime.now(), PAGE);
 
         assertThat(bookings.size(), equalTo(2));
-        assertThat(bookings.get(0).getId(), equalTo(2L));
-        assertThat(bookings.get(1).getId(), equalTo(4L));
+        assertThat(bookings.get(0).getId(), equalTo(4L));
+        assertThat(bookings.get(1).getId(), equalTo(2L));
     }
 
     @Test
-    void findByBookerIdCurrent() {
-        List<Booking> bookings = bookingRepository.findByBookerIdCurrent(2L, LocalDateTime.now(), PageRequest.of(0, 10));
+    void findBookerBookings_whenCurrent() {
+        List<BookingView> bookings = bookingRepository.findBookerBookings(2L, BookingFilterState.CURRENT, LocalDateTime.now(), PAGE);
 
         assertThat(bookings.size(), equalTo(1));
         assertThat(bookings.get(0).getId(), equalTo(3L));
 
         //
-        bookings = bookingRepository.findByBookerIdCurrent(1L, LocalDateTime.now(), PageRequest.of(0, 10));
+        bookings = bookingRepository.findBookerBookings(1L, BookingFilterState.CURRENT, LocalDateTime.now(), PAGE);
 
         assertThat(bookings, empty());
     }
 
     @Test
-    void findByBookerIdAndStartIsAfter() {
-        List<Booking> bookings = bookingRepository.findByBookerIdAndStartIsAfter(2L, LocalDateTime.now(), PageRequest.of(0, 10));
+    void findBookerBookings_whenFuture() {
+        List<BookingView> bookings = bookingRepository.findBookerBookings(2L, BookingFilterState.FUTURE, LocalDateTime.now(), PAGE);
 
         assertThat(bookings.size(), equalTo(1));
         assertThat(bookings.get(0).getId(), equalTo(1L));
     }
 
     @Test
-    void findByItemOwnerIdAndStatus() {
-        List<Booking> bookings = bookingRepository.findByItemOwnerIdAndStatus(1L, BookingStatus.WAITING, PageRequest.of(0, 10));
+    void stampEndedBefore_andStartedBefore_thenStampPhasesAsOfTime() {
+        LocalDateTime time = LocalDateTime.now();
+
+        assertThat(bookingRepository.stampEndedBefore(time), equalTo(2));
+        assertThat(bookingRepository.stampStartedBefore(time), equalTo(1));
+        entityManager.clear();
+
+        assertThat(bookingRepository.findAll(Sort.by("id")).stream()
+                .map(Booking::getPhase)
+                .collect(Collectors.toList()), contains(BookingPhase.FUTURE, BookingPhase.PAST,
+                BookingPhase.CURRENT, BookingPhase.PAST));
+        assertThat(bookingRepository.findBookerBookings(2L, BookingFilterState.CURRENT, LocalDateTime.now(), PAGE)
+                .get(0).getId(), equalTo(3L));
+        assertThat(bookingRepository.findBookerBookings(2L, BookingFilterState.FUTURE, LocalDateTime.now(), PAGE)
+                .get(0).getId(), equalTo(1L));
+    }
+
+    @Test
+    void findBookerBookings_whenPhaseLagsBehind_thenFilterByTime() {
+        // stamped as of a day ago: booking 3 has started since, booking 1 still looks future
+        bookingRepository.stampEndedBefore(LocalDateTime.now().minusDays(1));
+        bookingRepository.stampStartedBefore(LocalDateTime.now().minusDays(1));
+        entityManager.clear();
+
+        assertThat(bookingRepository.findBookerBookings(2L, BookingFilterState.CURRENT, LocalDateTime.now(), PAGE)
+                .stream().map(BookingView::getId).collect(Collectors.toList()), contains(3L));
+        assertThat(bookingRepository.findBookerBookings(2L, BookingFilterState.FUTURE, LocalDateTime.now(), PAGE)
+                .stream().map(BookingView::getId).collect(Collectors.toList()), contains(1L));
+        assertThat(bookingRepository.findBookerBookings(1L, BookingFilterState.PAST, LocalDateTime.now(), PAGE)
+                .stream().map(BookingView::getId).collect(Collectors.toList()), contains(4L, 2L));
+    }
+
+    @Test
+    void findOwnerBookings_whenWaiting() {
+        List<BookingView> bookings = bookingRepository.findOwnerBookings(1L, BookingFilterState.WAITING, LocalDateTime.now(), PAGE);
 
         assertThat(bookings.size(), equalTo(2));
         assertThat(bookings.get(0).getId(), equalTo(1L));
@@ -187,85 +230,160 @@ public class BookingRepositoryIT {
     }
 
     @Test
-    void findByItemOwnerIdAndStatusIn() {
-        List<Booking> bookings = bookingRepository.findByItemOwnerIdAndStatusIn(
-                1L,
-                Set.of(BookingStatus.APPROVED, BookingStatus.REJECTED),
-                PageRequest.of(0, 10));
+    void findOwnerBookings_whenRejected() {
+        List<BookingView> bookings = bookingRepository.findOwnerBookings(1L, BookingFilterState.REJECTED, LocalDateTime.now(), PAGE);
 
-        assertThat(bookings.size(), equalTo(1));
-        assertThat(bookings.get(0).getId(), equalTo(3L));
+        assertThat(bookings, empty());
     }
 
     @Test
-    void findByItemOwnerId() {
-        List<Booking> bookings = bookingRepository.findByItemOwnerId(1L, PageRequest.of(0, 10));
+    void findOwnerBookings_whenAll_thenApplyOffset() {
+        List<BookingView> bookings = bookingRepository.findOwnerBookings(1L, BookingFilterState.ALL, LocalDateTime.now(), PAGE);
 
         assertThat(bookings.size(), equalTo(3));
+
+        //
+        bookings = bookingRepository.findOwnerBookings(1L, BookingFilterState.ALL, LocalDateTime.now(),
+                PageRequest.of(1, 2, PAGE.getSort()));
+
+        assertThat(bookings.size(), equalTo(1));
+        assertThat(bookings.get(0).getId(), equalTo(4L));
     }
 
     @Test
-    void findByItemOwnerIdAndEndIsBefore() {
-        List<Booking> bookings = bookingRepository.findByItemOwnerIdAndEndIsBefore(1L, LocalDateTime.now(), PageRequest.of(0, 10));
+    void findOwnerBookings_whenPast() {
+        List<BookingView> bookings = bookingRepository.findOwnerBookings(1L, BookingFilterState.PAST, LocalDateTime.now(), PAGE);
 
         assertThat(bookings.size(), equalTo(1));
         assertThat(bookings.get(0).getId(), equalTo(4L));
     }
 
     @Test
-    void findByItemOwnerIdCurrent() {
-        List<Booking> bookings = bookingRepository.findByItemOwnerIdCurrent(1L, LocalDateTime.now(), PageRequest.of(0, 10));
+    void findOwnerBookings_whenCurrent() {
+        List<BookingView> bookings = bookingRepository.findOwnerBookings(1L, BookingFilterState.CURRENT, LocalDateTime.now(), PAGE);
 
         assertThat(bookings.size(), equalTo(1));
         assertThat(bookings.get(0).getId(), equalTo(3L));
     }
 
     @Test
-    void findByItemOwnerIdAndStartIsAfter() {
-        List<Booking> bookings = bookingRepository.findByItemOwnerIdAndStartIsAfter(1L, LocalDateTime.now(), PageRequest.of(0, 10));
+    void findOwnerBookings_whenFuture() {
+        List<BookingView> bookings = bookingRepository.findOwnerBookings(1L, BookingFilterState.FUTURE, LocalDateTime.now(), PAGE);
 
         assertThat(bookings.size(), equalTo(1));
         assertThat(bookings.get(0).getId(), equalTo(1L));
     }
 
     @Test
-    void findLastBookingsOfItem() {
-        List<Booking> bookings = bookingRepository.findLastBookingsOfItem(3L, LocalDateTime.now(), PageRequest.of(0, 10));
+    void findLastAndNextBookingsOfItems_whenSingleItem_thenReturnLatestPastBooking() {
+        List<ItemBookingView> bookings = bookingRepository.findLastAndNextBookingsOfItems(List.of(3L), LocalDateTime.now());
 
-        assertThat(bookings.size(), equalTo(2));
+        assertThat(bookings.size(), equalTo(1));
         assertThat(bookings.get(0).getId(), equalTo(3L));
-        assertThat(bookings.get(1).getId(), equalTo(4L));
+        assertThat(bookings.get(0).getItemId(), equalTo(3L));
+        assertThat(bookings.get(0).getBookerId(), equalTo(2L));
+        assertThat(bookings.get(0).getLast(), equalTo(true));
     }
 
     @Test
-    void findNextBookingsOfItem() {
-        List<Booking> bookings = bookingRepository.findNextBookingsOfItem(1L, LocalDateTime.now(), PageRequest.of(0, 10));
-
-        assertThat(bookings.size(), equalTo(1));
-        assertThat(bookings.get(0).getId(), equalTo(1L));
+    void findLastAndNextBookingsOfItems_whenSeveralItems_thenReturnLastAndNextPerItem() {
+        Booking rejected = Booking.builder()
+                .id(5L)
+                .start(LocalDateTime.now().plusHours(2))
+                .end(LocalDateTime.now().plusHours(4))
+                .status(BookingStatus.REJECTED)
+                .item(itemRepository.getReferenceById(1L))
+                .booker(userRepository.getReferenceById(3L))
+                .build();
+        bookingRepository.save(rejected);
 
-        ///
+        List<ItemBookingView> bookings = bookingRepository.findLastAndNextBookingsOfItems(List.of(1L, 2L, 3L), LocalDateTime.now());
 
-        bookings = bookingRepository.findNextBookingsOfItem(2L, LocalDateTime.now(), PageRequest.of(0, 10));
+        assertThat(bookings.stream()
+                .filter(ItemBookingView::getLast)
+                .map(ItemBookingView::getId)
+                .collect(Collectors.toList()), containsInAnyOrder(2L, 3L));
+        assertThat(bookings.stream()
+                .filter(b -> !b.getLast())
+                .map(ItemBookingView::getId)
+                .collect(Collectors.toList()), contains(1L));
+        assertThat(bookings.stream()
+                .filter(b -> !b.getLast())
+                .findFirst()
+                .map(ItemBookingView::getStart)
+                .orElseThrow(), notNullValue());
+    }
 
-        assertThat(bookings, empty());
+    @Test
+    void findOwnerBookingsAfter_whenCursorSet_thenContinueAfterCursor() {
+        entityManager.flush();
+        entityManager.clear();
+        LocalDateTime now = LocalDateTime.now();
+        List<BookingView> firstPage = bookingRepository.findOwnerBookingsAfter(1L, BookingFilterState.ALL, now, null, 1);
+
+        assertThat(firstPage.size(), equalTo(1));
+        assertThat(firstPage.get(0).getId(), equalTo(1L));
+
+        BookingView last = firstPage.get(0);
+        List<BookingView> nextPage = bookingRepository.findOwnerBookingsAfter(
+                1L, BookingFilterState.ALL, now, PageCursor.of(last.getStart(), last.getId()), 5);
+
+        assertThat(nextPage.stream()
+                .map(BookingView::getId)
+                .collect(Collectors.toList()), contains(3L, 4L));
     }
 
     @Test
-    void findLastBookingOfItems() {
-        List<Booking> bookings = bookingRepository.findLastBookingOfItems(List.of(1L, 2L, 3L), LocalDateTime.now());
+    void findBookerBookingsAfter_whenStateFilter_thenApplyState() {
+        List<BookingView> bookings = bookingRepository.findBookerBookingsAfter(
+                1L, BookingFilterState.PAST, LocalDateTime.now(), PageCursor.of(LocalDateTime.now(), Long.MAX_VALUE), 5);
 
-        assertThat(bookings.size(), equalTo(2));
         assertThat(bookings.stream()
-                .map(Booking::getId)
-                .collect(Collectors.toList()), containsInAnyOrder(equalTo(2L), equalTo(3L)));
+                .map(BookingView::getId)
+                .collect(Collectors.toList()), contains(4L, 2L));
     }
 
     @Test
-    void findNextBookingOfItems() {
-        List<Booking> bookings = bookingRepository.findNextBookingOfItems(List.of(1L, 2L, 3L), LocalDateTime.now());
+    void findEndsOfBookingsStartingBefore_thenLatestStartFirst() {
+        List<LocalDateTime> ends = bookingRepository.findEndsOfBookingsStartingBefore(
+                3L, EnumSet.of(BookingStatus.WAITING, BookingStatus.APPROVED), LocalDateTime.now(), PageRequest.of(0, 1));
 
-        assertThat(bookings.size(), equalTo(1));
-        assertThat(bookings.get(0).getId(), equalTo(1L));
+        assertThat(ends.size(), equalTo(1));
+        assertThat(ends.get(0), greaterThan(LocalDateTime.now()));
+    }
+
+    @Test
+    void findEndsOfBookingsStartingBefore_whenStatusFilter_thenSkipOtherStatuses() {
+        List<LocalDateTime> ends = bookingRepository.findEndsOfBookingsStartingBefore(
+                3L, EnumSet.of(BookingStatus.WAITING), LocalDateTime.now(), PageRequest.of(0, 5));
+
+        assertThat(ends.size(), equalTo(1));
+        assertThat(ends.get(0), lessThan(LocalDateTime.now().minusHours(5)));
+    }
+
+    @Test
+    void saveAll_thenInsertInJdbcBatches() {
+        Item item = itemRepository.findAll().get(0);
+        User booker = userRepository.findAll().get(2);
+        List<Booking> bookings = IntStream.range(0, 120)
+                .mapToObj(i -> Booking.builder()
+                        .start(LocalDateTime.now().plusDays(i))
+                        .end(LocalDateTime.now().plusDays(i).plusHours(1))
+                        .item(item)
+                        .booker(booker)
+                        .status(BookingStatus.WAITING)
+                        .build())
+                .collect(Collectors.toList());
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        bookingRepository.saveAll(bookings);
+        entityManager.flush();
+
+        assertThat(statistics.getEntityInsertCount(), equalTo(120L));
+        // three batches of inserts and at most three nextval calls for blocks of 50 ids
+        assertThat(statistics.getPrepareStatementCount(), lessThanOrEqualTo(6L));
+        assertThat(bookings.get(119).getId() - bookings.get(0).getId(), equalTo(119L));
     }
 }
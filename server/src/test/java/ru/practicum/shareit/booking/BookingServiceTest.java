@@ -4,31 +4,44 @@ import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.dto.ItemIntervalView;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ObjectUnavailableException;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.param.PageCursor;
 import ru.practicum.shareit.param.PaginationRequest;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentCaptor.forClass;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,12 +52,16 @@ public class BookingServiceTest {
     private ItemRepository itemRepository;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private BookingIntervalIndex intervalIndex;
+    @Mock
+    private ItemBookingSummaryUpdater summaryUpdater;
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
     @InjectMocks
     private BookingServiceImpl service;
-    @Captor
-    private ArgumentCaptor<Booking> captor;
-    private final User user = new User(1L, "name", "mail.com");
-    private final User user2 = new User(2L, "name2", "mw@g.com");
+    private final User user = new User(1L, "name", "mail.com", null);
+    private final User user2 = new User(2L, "name2", "mw@g.com", null);
     private final Item item = Item.builder()
             .id(1L)
             .owner(user)
@@ -60,6 +77,18 @@ public class BookingServiceTest {
             .end(LocalDateTime.now().plusHours(12))
             .item(item)
             .build();
+    private final BookingView bookingView = new BookingView(1L,
+            booking.getStart(),
+            booking.getEnd(),
+            BookingStatus.APPROVED,
+            1L,
+            "name",
+            "desc",
+            true,
+            null,
+            2L,
+            "name2",
+            "mw@g.com");
 
     @Test
     void addBooking_whenNoItem_thenThrowNotFound() {
@@ -84,7 +113,7 @@ public class BookingServiceTest {
         BookingCreateDto dto = new BookingCreateDto(1L, LocalDateTime.now().plusHours(12), LocalDateTime.now());
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
         when(userRepository.findById(2L)).thenReturn(Optional.of(user2));
-        when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
+        when(bookingRepository.saveAndFlush(any(Booking.class))).thenReturn(booking);
 
         BookingDto bookingDto = service.addBooking(dto, 2L);
 
@@ -92,6 +121,32 @@ public class BookingServiceTest {
         assertThat(bookingDto.getBooker().getName(), Matchers.equalTo("name2"));
     }
 
+    @Test
+    void addBooking_whenOverlapsActiveBooking_thenThrowConflict() {
+        LocalDateTime start = LocalDateTime.now().plusHours(1);
+        BookingCreateDto dto = new BookingCreateDto(1L, start.plusHours(2), start);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(userRepository.findById(2L)).thenReturn(Optional.of(user2));
+        when(bookingRepository.findEndsOfBookingsStartingBefore(eq(1L), any(), eq(start.plusHours(2)), any(Pageable.class)))
+                .thenReturn(List.of(start.plusMinutes(1)));
+
+        assertThrows(ConflictException.class, () -> service.addBooking(dto, 2L));
+        verify(bookingRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void addBooking_whenPreviousBookingEndsAtStart_thenSave() {
+        LocalDateTime start = LocalDateTime.now().plusHours(1);
+        BookingCreateDto dto = new BookingCreateDto(1L, start.plusHours(2), start);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(userRepository.findById(2L)).thenReturn(Optional.of(user2));
+        when(bookingRepository.findEndsOfBookingsStartingBefore(eq(1L), any(), eq(start.plusHours(2)), any(Pageable.class)))
+                .thenReturn(List.of(start));
+        when(bookingRepository.saveAndFlush(any(Booking.class))).thenReturn(booking);
+
+        assertThat(service.addBooking(dto, 2L).getId(), Matchers.equalTo(1L));
+    }
+
     @Test
     void addBooking_whenItemUnavailable_thenThrow() {
         BookingCreateDto dto = new BookingCreateDto(1L, LocalDateTime.now().plusHours(12), LocalDateTime.now());
@@ -101,6 +156,85 @@ public class BookingServiceTest {
         assertThrows(ObjectUnavailableException.class, () -> service.addBooking(dto, 1L));
     }
 
+    @Test
+    void addBookings_whenSomeEntriesInvalid_thenSaveOnlyValidOnes() {
+        LocalDateTime start = LocalDateTime.now().plusHours(1);
+        List<BookingCreateDto> dtos = Arrays.asList(
+                new BookingCreateDto(1L, start.plusHours(2), start),
+                new BookingCreateDto(1L, start.plusHours(3), start.plusHours(1)),
+                new BookingCreateDto(5L, start.plusHours(2), start),
+                new BookingCreateDto(1L, start, start.plusHours(2)),
+                null);
+        when(userRepository.findById(2L)).thenReturn(Optional.of(user2));
+        when(itemRepository.findAllById(Set.of(1L, 5L))).thenReturn(List.of(item));
+
+        List<BookingBatchResultDto> results = service.addBookings(dtos, 2L);
+
+        assertThat(results.get(0).getBooking().getStart(), Matchers.equalTo(start));
+        assertThat(results.get(0).getError(), Matchers.nullValue());
+        assertThat(results.get(1).getError(), Matchers.equalTo("Item is already booked for this period"));
+        assertThat(results.get(2).getError(), Matchers.equalTo("Item doesn't exist"));
+        assertThat(results.get(3).getError(), Matchers.equalTo("end time must be after start time"));
+        assertThat(results.get(4).getError(), Matchers.equalTo("itemId, start and end are required"));
+        verify(bookingRepository).saveAll(List.of(BookingMapper.createDtoToBooking(dtos.get(0), user2, item)));
+        verify(bookingRepository).flush();
+        verify(intervalIndex).add(1L, start, start.plusHours(2));
+    }
+
+    @Test
+    void addBookings_whenBookedInDatabase_thenCheckAllEntriesInOneQuery() {
+        LocalDateTime start = LocalDateTime.now().plusHours(1);
+        List<BookingCreateDto> dtos = List.of(
+                new BookingCreateDto(1L, start.plusHours(2), start),
+                new BookingCreateDto(1L, start.plusHours(5), start.plusHours(4)),
+                new BookingCreateDto(1L, start.plusHours(8), start.plusHours(6)));
+        when(userRepository.findById(2L)).thenReturn(Optional.of(user2));
+        when(itemRepository.findAllById(Set.of(1L))).thenReturn(List.of(item));
+        ItemIntervalView booked = interval(1L, start.plusHours(3), start.plusHours(5));
+        when(bookingRepository.findIntervalsOfItemsOverlapping(Set.of(1L), BookingIntervalIndex.ACTIVE_STATUSES,
+                start, start.plusHours(8))).thenReturn(List.of(booked));
+
+        List<BookingBatchResultDto> results = service.addBookings(dtos, 2L);
+
+        assertThat(results.get(0).getBooking().getStart(), Matchers.equalTo(start));
+        assertThat(results.get(1).getError(), Matchers.equalTo("Item is already booked for this period"));
+        assertThat(results.get(2).getBooking().getStart(), Matchers.equalTo(start.plusHours(6)));
+        verify(bookingRepository).saveAll(List.of(
+                BookingMapper.createDtoToBooking(dtos.get(0), user2, item),
+                BookingMapper.createDtoToBooking(dtos.get(2), user2, item)));
+        verify(bookingRepository, never()).findEndsOfBookingsStartingBefore(anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void addBookings_whenConcurrentBookingCommitsFirst_thenCheckAgainAndSaveTheOthers() {
+        LocalDateTime start = LocalDateTime.now().plusHours(1);
+        List<BookingCreateDto> dtos = List.of(
+                new BookingCreateDto(1L, start.plusHours(2), start),
+                new BookingCreateDto(1L, start.plusHours(5), start.plusHours(4)));
+        when(userRepository.findById(2L)).thenReturn(Optional.of(user2));
+        when(itemRepository.findAllById(Set.of(1L))).thenReturn(List.of(item));
+        ItemIntervalView concurrent = interval(1L, start.plusHours(1), start.plusHours(3));
+        when(bookingRepository.findIntervalsOfItemsOverlapping(Set.of(1L), BookingIntervalIndex.ACTIVE_STATUSES,
+                start, start.plusHours(5))).thenReturn(List.of(), List.of(concurrent));
+        doThrow(new DataIntegrityViolationException("bookings_item_no_overlap")).doNothing()
+                .when(bookingRepository).flush();
+
+        List<BookingBatchResultDto> results = service.addBookings(dtos, 2L);
+
+        assertThat(results.get(0).getError(), Matchers.equalTo("Item is already booked for this period"));
+        assertThat(results.get(1).getBooking().getStart(), Matchers.equalTo(start.plusHours(4)));
+        verify(bookingRepository).saveAll(List.of(BookingMapper.createDtoToBooking(dtos.get(1), user2, item)));
+        verify(intervalIndex, never()).add(1L, start, start.plusHours(2));
+        verify(intervalIndex).add(1L, start.plusHours(4), start.plusHours(5));
+    }
+
+    @Test
+    void addBookings_whenNoUser_thenThrowNotFound() {
+        when(userRepository.findById(2L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> service.addBookings(List.of(), 2L));
+    }
+
     @Test
     void finalizeBookingStatus_whenNoBooking_thenReturnNotFound() {
         when(bookingRepository.findById(1L)).thenReturn(Optional.empty());
@@ -111,21 +245,53 @@ public class BookingServiceTest {
     @Test
     void finalizeBookingStatus_whenStateConsidered_thenReturnIllegalArgument() {
         when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.existsById(1L)).thenReturn(true);
 
         assertThrows(IllegalArgumentException.class, () -> service.finalizeBookingStatus(1L, 1L, true));
     }
 
     @Test
     void finalizeBookingStatus_whenSuccessful_thenSetStatusApproved() {
-        Booking booking2 = booking.toBuilder().status(BookingStatus.WAITING).build();
-        when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking2));
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(bookingRepository.updateWaitingStatus(1L, 1L, BookingStatus.APPROVED)).thenReturn(1);
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
+
+        assertThat(service.finalizeBookingStatus(1L, 1L, true).getId(), Matchers.equalTo(booking.getId()));
+        verify(bookingRepository, never()).save(any());
+    }
 
-        service.finalizeBookingStatus(1L, 1L, true);
+    @Test
+    void finalizeBookingStatus_whenWaitingButNotUpdated_thenReturnConflict() {
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking.toBuilder()
+                .status(BookingStatus.WAITING).build()));
+        when(userRepository.existsById(1L)).thenReturn(true);
 
-        verify(bookingRepository, times(1)).save(captor.capture());
-        assertThat(captor.getValue().getStatus(), Matchers.equalTo(BookingStatus.APPROVED));
+        assertThrows(ConflictException.class, () -> service.finalizeBookingStatus(1L, 1L, true));
+    }
+
+    @Test
+    void finalizeBookingStatuses_thenUpdateOnlyWaitingBookingsOfOwner() {
+        Booking waiting = booking.toBuilder().status(BookingStatus.WAITING).build();
+        Booking waiting2 = booking.toBuilder().id(4L).status(BookingStatus.WAITING).build();
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(bookingRepository.findAllByIdInAndItemOwnerId(Set.of(1L, 2L, 3L, 4L), 1L))
+                .thenReturn(List.of(waiting, booking.toBuilder().id(2L).build(), waiting2));
+
+        List<BookingBatchResultDto> results = service.finalizeBookingStatuses(List.of(
+                new BookingStatusUpdateDto(1L, true),
+                new BookingStatusUpdateDto(2L, true),
+                new BookingStatusUpdateDto(3L, true),
+                new BookingStatusUpdateDto(4L, false),
+                new BookingStatusUpdateDto(4L, true),
+                new BookingStatusUpdateDto(null, true)), 1L);
+
+        assertThat(results.get(0).getBooking().getStatus(), Matchers.equalTo(BookingStatus.APPROVED));
+        assertThat(results.get(1).getError(), Matchers.equalTo("Status was already considered"));
+        assertThat(results.get(2).getError(), Matchers.equalTo("No booking 3 for owner with user id 1"));
+        assertThat(results.get(3).getBooking().getStatus(), Matchers.equalTo(BookingStatus.REJECTED));
+        assertThat(results.get(4).getError(), Matchers.equalTo("Status was already considered"));
+        assertThat(results.get(5).getError(), Matchers.equalTo("bookingId and approved are required"));
+        verify(intervalIndex).remove(1L, waiting2.getStart(), waiting2.getEnd());
+        verify(bookingRepository, never()).save(any());
     }
 
     @Test
@@ -154,7 +320,7 @@ public class BookingServiceTest {
 
     @Test
     void getBookingsByState_whenNoBooker_thenThrowNotFound() {
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userRepository.existsById(1L)).thenReturn(false);
 
         assertThrows(NotFoundException.class,
                 () -> service.getBookingsByState(1L, BookingFilterState.CURRENT, new PaginationRequest(0, 5)));
@@ -162,56 +328,50 @@ public class BookingServiceTest {
 
     @Test
     void getBookingsByState_whenAll() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(bookingRepository.findByBookerId(anyLong(), any(Pageable.class)))
-                .thenReturn(List.of(booking));
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(bookingRepository.findBookerBookings(eq(1L), eq(BookingFilterState.ALL), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(bookingView));
 
         List<BookingDto> bookings = service.getBookingsByState(1L, BookingFilterState.ALL, new PaginationRequest(0, 5));
 
-        verify(bookingRepository, times(1)).findByBookerId(anyLong(), any(Pageable.class));
         assertThat(bookings.get(0).getItem().getDescription(), Matchers.equalTo("desc"));
+        assertThat(bookings.get(0).getBooker().getId(), Matchers.equalTo(2L));
     }
 
     @Test
-    void getBookingsByState_whenByTime() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-
-        service.getBookingsByState(1L, BookingFilterState.CURRENT, new PaginationRequest(0, 5));
-
-        verify(bookingRepository, times(1))
-                .findByBookerIdCurrent(anyLong(), any(LocalDateTime.class), any(Pageable.class));
+    void getBookingsByState_whenByState_thenPassStateAndStartDescPage() {
+        ArgumentCaptor<Pageable> pageableCaptor = forClass(Pageable.class);
+        when(userRepository.existsById(1L)).thenReturn(true);
 
-        ///////
-
-        service.getBookingsByState(1L, BookingFilterState.PAST, new PaginationRequest(0, 5));
-
-        verify(bookingRepository, times(1))
-                .findByBookerIdAndEndIsBefore(anyLong(), any(LocalDateTime.class), any(Pageable.class));
-
-        ///////
-
-        service.getBookingsByState(1L, BookingFilterState.FUTURE, new PaginationRequest(0, 5));
+        service.getBookingsByState(1L, BookingFilterState.WAITING, new PaginationRequest(0, 5));
 
-        verify(bookingRepository, times(1))
-                .findByBookerIdAndStartIsAfter(anyLong(), any(LocalDateTime.class), any(Pageable.class));
+        verify(bookingRepository, times(1)).findBookerBookings(eq(1L),
+                eq(BookingFilterState.WAITING),
+                any(LocalDateTime.class),
+                pageableCaptor.capture());
+        assertThat(pageableCaptor.getValue().getSort().getOrderFor("start").isDescending(), Matchers.equalTo(true));
+        assertThat(pageableCaptor.getValue().getPageSize(), Matchers.equalTo(5));
     }
 
     @Test
-    void getBookingsByState_whenByStatus() {
-        ArgumentCaptor<BookingStatus> statusCaptor = forClass(BookingStatus.class);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-
-        service.getBookingsByState(1L, BookingFilterState.WAITING, new PaginationRequest(0, 5));
-
-        verify(bookingRepository, times(1)).findByBookerIdAndStatus(anyLong(),
-                statusCaptor.capture(),
-                any(Pageable.class));
-        assertThat(statusCaptor.getValue(), Matchers.equalTo(BookingStatus.WAITING));
+    void getBookingsByState_whenCursor_thenUseKeysetQuery() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        LocalDateTime position = LocalDateTime.of(2023, 1, 1, 12, 0);
+
+        service.getBookingsByState(1L, BookingFilterState.PAST,
+                new PaginationRequest(0, 5, PageCursor.of(position, 7L).encode()));
+
+        verify(bookingRepository, times(1)).findBookerBookingsAfter(eq(1L),
+                eq(BookingFilterState.PAST),
+                any(LocalDateTime.class),
+                eq(PageCursor.of(position, 7L)),
+                eq(5));
+        verify(bookingRepository, never()).findBookerBookings(anyLong(), any(), any(), any());
     }
 
     @Test
     void getOwnerBookingsByState_whenNoBooker_thenThrowNotFound() {
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userRepository.existsById(1L)).thenReturn(false);
 
         assertThrows(NotFoundException.class,
                 () -> service.getOwnerBookingsByState(1L, BookingFilterState.CURRENT, new PaginationRequest(0, 5)));
@@ -219,51 +379,46 @@ public class BookingServiceTest {
 
     @Test
     void getOwnerBookingsByState_whenAll() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(bookingRepository.findByItemOwnerId(anyLong(), any(Pageable.class)))
-                .thenReturn(List.of(booking));
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(bookingRepository.findOwnerBookings(eq(1L), eq(BookingFilterState.ALL), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(bookingView));
 
         List<BookingDto> bookings = service.getOwnerBookingsByState(1L, BookingFilterState.ALL, new PaginationRequest(0, 5));
 
-        verify(bookingRepository, times(1)).findByItemOwnerId(anyLong(), any(Pageable.class));
         assertThat(bookings.get(0).getItem().getDescription(), Matchers.equalTo("desc"));
+        assertThat(bookings.get(0).getStatus(), Matchers.equalTo(BookingStatus.APPROVED));
     }
 
     @Test
-    void getOwnerBookingsByState_whenByTime() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+    void getOwnerBookingsByState_whenCurrent_thenStartAscPage() {
+        ArgumentCaptor<Pageable> pageableCaptor = forClass(Pageable.class);
+        when(userRepository.existsById(1L)).thenReturn(true);
 
         service.getOwnerBookingsByState(1L, BookingFilterState.CURRENT, new PaginationRequest(0, 5));
 
-        verify(bookingRepository, times(1))
-                .findByItemOwnerIdCurrent(anyLong(), any(LocalDateTime.class), any(Pageable.class));
-
-        ///////
-
-        service.getOwnerBookingsByState(1L, BookingFilterState.PAST, new PaginationRequest(0, 5));
-
-        verify(bookingRepository, times(1))
-                .findByItemOwnerIdAndEndIsBefore(anyLong(), any(LocalDateTime.class), any(Pageable.class));
-
-        ///////
-
-        service.getOwnerBookingsByState(1L, BookingFilterState.FUTURE, new PaginationRequest(0, 5));
-
-        verify(bookingRepository, times(1))
-                .findByItemOwnerIdAndStartIsAfter(anyLong(), any(LocalDateTime.class), any(Pageable.class));
+        verify(bookingRepository, times(1)).findOwnerBookings(eq(1L),
+                eq(BookingFilterState.CURRENT),
+                any(LocalDateTime.class),
+                pageableCaptor.capture());
+        assertThat(pageableCaptor.getValue().getSort().getOrderFor("start").isAscending(), Matchers.equalTo(true));
     }
 
     @Test
-    void getOwnerBookingsByState_whenByStatus() {
-        ArgumentCaptor<BookingStatus> statusCaptor = forClass(BookingStatus.class);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+    void getOwnerBookingsByState_whenByState_thenPassState() {
+        when(userRepository.existsById(1L)).thenReturn(true);
 
-        service.getOwnerBookingsByState(1L, BookingFilterState.WAITING, new PaginationRequest(0, 5));
+        service.getOwnerBookingsByState(1L, BookingFilterState.CURRENT, new PaginationRequest(0, 5));
 
-        verify(bookingRepository, times(1)).findByItemOwnerIdAndStatus(anyLong(),
-                statusCaptor.capture(),
-                any(Pageable.class));
-        assertThat(statusCaptor.getValue(), Matchers.equalTo(BookingStatus.WAITING));
+        verify(bookingRepository, times(1))
+                .findOwnerBookings(eq(1L), eq(BookingFilterState.CURRENT), any(LocalDateTime.class), any(Pageable.class));
+        verify(bookingRepository, never()).findBookerBookings(anyLong(), any(), any(), any());
     }
 
+    private static ItemIntervalView interval(long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemIntervalView interval = mock(ItemIntervalView.class);
+        when(interval.getItemId()).thenReturn(itemId);
+        when(interval.getStart()).thenReturn(start);
+        when(interval.getEnd()).thenReturn(end);
+        return interval;
+    }
 }
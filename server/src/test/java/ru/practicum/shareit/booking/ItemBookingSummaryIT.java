@@ -0,0 +1,71 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.GetItemDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.param.PaginationRequest;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+@SpringBootTest(properties = "db.name=test10")
+@DirtiesContext
+public class ItemBookingSummaryIT {
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemBookingSummaryRepository summaryRepository;
+    @Autowired
+    private ItemBookingSummaryUpdater summaryUpdater;
+
+    @Test
+    void summary_whenBookingsAddedRejectedAndStarted_thenFollowsThem() throws Exception {
+        long ownerId = userService.createUser(UserDto.builder().name("owner").email("owner@sum.ru").build()).getId();
+        long bookerId = userService.createUser(UserDto.builder().name("booker").email("booker@sum.ru").build()).getId();
+        long itemId = itemService.addItem(ownerId, ItemDto.builder()
+                .name("drill").description("desc").available(true).build()).getId();
+        assertThat(summaryRepository.findById(itemId).orElseThrow().getNext(), nullValue());
+
+        LocalDateTime soon = LocalDateTime.now().plusSeconds(1);
+        long first = bookingService.addBooking(new BookingCreateDto(itemId, soon.plusMinutes(30), soon), bookerId)
+                .getId();
+        LocalDateTime tomorrow = LocalDateTime.now().plusDays(1);
+        long second = bookingService.addBooking(
+                new BookingCreateDto(itemId, tomorrow.plusHours(1), tomorrow), bookerId).getId();
+        assertThat(summaryRepository.findById(itemId).orElseThrow().getNext().getId(), equalTo(first));
+
+        Thread.sleep(1200);
+        // the summary is behind until rolled forward, the listing reads the bookings meanwhile
+        GetItemDto listed = itemService.getItems(ownerId, new PaginationRequest(0, 10)).get(0);
+        assertThat(listed.getLastBooking().getId(), equalTo(first));
+        assertThat(listed.getNextBooking().getId(), equalTo(second));
+
+        summaryUpdater.rollForward();
+        ItemBookingSummary summary = summaryRepository.findById(itemId).orElseThrow();
+        assertThat(summary.getLast().getId(), equalTo(first));
+        assertThat(summary.getNext().getId(), equalTo(second));
+        assertThat(summary.getNext().getBookerId(), equalTo(bookerId));
+        assertThat(summary.isCurrent(LocalDateTime.now()), equalTo(true));
+
+        bookingService.finalizeBookingStatus(second, ownerId, false);
+        assertThat(summaryRepository.findById(itemId).orElseThrow().getNext(), nullValue());
+        GetItemDto item = itemService.getItemById(itemId, ownerId);
+        assertThat(item.getLastBooking().getId(), equalTo(first));
+        assertThat(item.getNextBooking(), nullValue());
+    }
+}
@@ -18,7 +18,7 @@ public class CommentMapperTest {
         Comment comment = Comment.builder()
                 .id(1L)
                 .text("text")
-                .author(new User(1L, "nname", "e@mail.com"))
+                .author(new User(1L, "nname", "e@mail.com", null))
                 .created(created)
                 .build();
 
@@ -0,0 +1,100 @@
+package ru.practicum.shareit.item;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.ItemRequestService;
+import ru.practicum.shareit.request.dto.CreateRequestDto;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+@SpringBootTest(properties = {"db.name=test6", "spring.jpa.properties.hibernate.generate_statistics=true"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class ItemCacheIT {
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemRequestService requestService;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    private long ownerId;
+    private long requestId;
+    private long itemId;
+
+    @BeforeEach
+    void setUp() {
+        ownerId = userService.createUser(UserDto.builder().name("owner").email("owner@mail.ru").build()).getId();
+        long requestorId = userService.createUser(UserDto.builder().name("req").email("req@mail.ru").build()).getId();
+        requestId = requestService.addRequest(requestorId, new CreateRequestDto("drill")).getId();
+        itemId = itemService.addItem(ownerId, ItemDto.builder()
+                .name("drill")
+                .description("desc")
+                .available(true)
+                .requestId(requestId)
+                .build()).getId();
+        statistics().clear();
+    }
+
+    @Test
+    void findById_whenLoadedBefore_thenServeFromSecondLevelCache() {
+        // inserts with sequence ids already put the item into the cache on commit
+        entityManagerFactory.getCache().evict(Item.class);
+        findItem();
+        findItem();
+
+        assertThat(entityManagerFactory.getCache().contains(Item.class, itemId), equalTo(true));
+        assertThat(statistics().getDomainDataRegionStatistics("items").getHitCount(), equalTo(1L));
+    }
+
+    @Test
+    void updateItem_whenPatchedThroughDetachedCopy_thenCacheHoldsNewState() {
+        findItem();
+
+        itemService.updateItem(itemId, ownerId, ItemDto.builder().name("hammer").build());
+
+        Item item = findItem();
+        assertThat(item.getName(), equalTo("hammer"));
+        assertThat(item.getDescription(), equalTo("desc"));
+    }
+
+    @Test
+    void findAllByRequestIdIn_whenRepeated_thenServeFromQueryCache() {
+        transactionTemplate.execute(s -> itemRepository.findAllByRequestIdIn(Set.of(requestId)));
+        transactionTemplate.execute(s -> itemRepository.findAllByRequestIdIn(Set.of(requestId)));
+
+        assertThat(statistics().getQueryCacheHitCount(), equalTo(1L));
+
+        itemService.updateItem(itemId, ownerId, ItemDto.builder().name("hammer").build());
+
+        String name = transactionTemplate.execute(s -> itemRepository.findAllByRequestIdIn(Set.of(requestId))
+                .get(0).getName());
+        assertThat(name, equalTo("hammer"));
+    }
+
+    private Item findItem() {
+        return transactionTemplate.execute(s -> itemRepository.findById(itemId).orElseThrow());
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -6,8 +6,10 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.IntervalDto;
 import ru.practicum.shareit.booking.dto.ItemBookingDto;
 import ru.practicum.shareit.exception.AccessDeniedException;
 import ru.practicum.shareit.exception.BadRequestException;
@@ -22,8 +24,12 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -68,6 +74,19 @@ public class ItemControllerIT {
                 .andExpect(status().isNotFound());
     }
 
+    @SneakyThrows
+    @Test
+    void addItem_whenUserDeletedMeanwhile_thenReturn409() {
+        when(service.addItem(1L, dto)).thenThrow(new DataIntegrityViolationException("fk_items_owner"));
+
+        mvc.perform(post("/items")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(userHeader, 1L)
+                        .content(mapper.writeValueAsString(dto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict());
+    }
+
     @SneakyThrows
     @Test
     void addItem_whenNoUserInHeader_thenReturn500() {
@@ -122,6 +141,20 @@ public class ItemControllerIT {
                 .andExpect(jsonPath("$.nextBooking", nullValue()));
     }
 
+    @SneakyThrows
+    @Test
+    void getItem_whenETagMatches_thenReturn304WithoutLoading() {
+        when(service.getItemETag(1L, 1L)).thenReturn("3.1.2.5.1");
+
+        mvc.perform(get("/items/{id}", 1L)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("If-None-Match", "\"3.1.2.5.1\"")
+                        .header(userHeader, 1L))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3.1.2.5.1\""));
+        verify(service, never()).getItemById(anyLong(), anyLong());
+    }
+
     @SneakyThrows
     @Test
     void getUserItems_whenSuccessful_thenReturn200() {
@@ -261,4 +294,20 @@ public class ItemControllerIT {
                 .andExpect(jsonPath("$.authorName", is("name")))
                 .andExpect(jsonPath("$.text", is("text")));
     }
+
+    @SneakyThrows
+    @Test
+    void getAvailability_thenReturnFreeIntervals() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime to = LocalDateTime.of(2030, 1, 2, 10, 0);
+        when(service.getAvailability(1L, from, to)).thenReturn(List.of(new IntervalDto(from, from.plusHours(2))));
+
+        mvc.perform(get("/items/1/availability")
+                        .param("from", "2030-01-01T10:00:00")
+                        .param("to", "2030-01-02T10:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].start", is("2030-01-01T10:00:00")))
+                .andExpect(jsonPath("$[0].end", is("2030-01-01T12:00:00")));
+    }
 }
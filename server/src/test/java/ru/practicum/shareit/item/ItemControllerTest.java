@@ -5,6 +5,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 import ru.practicum.shareit.booking.dto.ItemBookingDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CreateCommentDto;
@@ -53,9 +56,10 @@ public class ItemControllerTest {
 
     @Test
     void getItem() {
+        when(service.getItemETag(1L, 1L)).thenReturn("0.0");
         when(service.getItemById(1L, 1L)).thenReturn(getDto);
 
-        assertThat(controller.getItem(1L, 1L), equalTo(getDto));
+        assertThat(controller.getItem(1L, 1L, new ServletWebRequest(new MockHttpServletRequest())), equalTo(getDto));
     }
 
     @Test
@@ -63,7 +67,7 @@ public class ItemControllerTest {
         PaginationRequest req = new PaginationRequest(0, 10);
         when(service.getItems(1L, req)).thenReturn(List.of(getDto));
 
-        assertThat(controller.getUserItems(1L, 0, 10), equalTo(List.of(getDto)));
+        assertThat(controller.getUserItems(1L, 0, 10, null, new MockHttpServletResponse()), equalTo(List.of(getDto)));
     }
 
     @Test
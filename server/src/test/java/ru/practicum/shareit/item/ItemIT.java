@@ -2,21 +2,34 @@ package ru.practicum.shareit.item;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.ShareItTests;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CreateCommentDto;
 import ru.practicum.shareit.item.dto.GetItemDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.param.PaginationRequest;
 import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.request.ItemRequestService;
 import ru.practicum.shareit.user.UserRepository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class ItemIT extends ShareItTests {
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @Autowired
     protected ItemIT(ItemService itemService, BookingService bookingService, ItemRequestService requestService, UserRepository userRepository, ItemRepository itemRepository, BookingRepository bookingRepository, ItemRequestRepository requestRepository, CommentRepository commentRepository) {
         super(itemService, bookingService, requestService, userRepository, itemRepository, bookingRepository, requestRepository, commentRepository);
@@ -35,4 +48,73 @@ public class ItemIT extends ShareItTests {
         assertThat(items.get(1).getNextBooking(), notNullValue());
 
     }
+
+    @Test
+    void getItems_whenCommentsOfSeveralAuthors_thenStayWithinQueryBudget() {
+        for (long authorId : List.of(1L, 2L)) {
+            saveComment("text" + authorId, 3L, authorId);
+        }
+
+        // the budget of getItems is enforced in tests: loading the authors one by one would fail the call
+        List<GetItemDto> items = itemService.getItems(1L, new PaginationRequest(0, 5));
+
+        assertThat(items.get(1).getComments().stream().map(CommentDto::getAuthorName).collect(Collectors.toList()),
+                containsInAnyOrder("name1", "name2"));
+    }
+
+    @Test
+    void addComment_whenBookingEnded_thenShowWithItemOnce() {
+        CommentDto comment = itemService.addComment(3L, 2L, new CreateCommentDto("worked"));
+
+        assertThat(comment.getAuthorName(), equalTo("name2"));
+        assertThat(itemService.getItemById(3L, 2L).getComments().stream().map(CommentDto::getText)
+                .collect(Collectors.toList()), contains("worked"));
+        assertThrows(BadRequestException.class,
+                () -> itemService.addComment(3L, 2L, new CreateCommentDto("again")));
+        assertThrows(BadRequestException.class, () -> itemService.addComment(1L, 2L, new CreateCommentDto("no")));
+    }
+
+    @Test
+    void getItemETag_whenItemCommentsOrBookingsChange_thenChangesForWhoSeesThem() {
+        String owner = itemService.getItemETag(3L, 1L);
+        String other = itemService.getItemETag(3L, 2L);
+
+        // only the owner sees the last and next booking
+        bookingService.finalizeBookingStatus(4L, 1L, true);
+        assertThat(itemService.getItemETag(3L, 2L), equalTo(other));
+        assertThat(itemService.getItemETag(3L, 1L), not(equalTo(owner)));
+        owner = itemService.getItemETag(3L, 1L);
+
+        saveComment("text", 3L, 2L);
+        assertThat(itemService.getItemETag(3L, 2L), not(equalTo(other)));
+        assertThat(itemService.getItemETag(3L, 1L), not(equalTo(owner)));
+        other = itemService.getItemETag(3L, 2L);
+
+        itemService.updateItem(3L, 1L, ItemDto.builder().description("patched").build());
+        assertThat(itemService.getItemETag(3L, 2L), not(equalTo(other)));
+
+        assertThrows(NotFoundException.class, () -> itemService.getItemETag(99L, 1L));
+    }
+
+    @Test
+    void getItemETag_whenCommentWithLowerIdAdded_thenChanges() {
+        long lower = saveComment("lower", 1L, 2L).getId();
+        saveComment("higher", 3L, 2L);
+        String eTag = itemService.getItemETag(3L, 2L);
+
+        // stands for a comment committed after the latest one, with an id another instance took earlier
+        transactionTemplate.executeWithoutResult(status ->
+                commentRepository.findById(lower).orElseThrow().setItem(itemRepository.getReferenceById(3L)));
+
+        assertThat(itemService.getItemETag(3L, 2L), not(equalTo(eTag)));
+    }
+
+    private Comment saveComment(String text, long itemId, long authorId) {
+        return transactionTemplate.execute(status -> commentRepository.save(Comment.builder()
+                .text(text)
+                .created(LocalDateTime.now())
+                .item(itemRepository.getReferenceById(itemId))
+                .author(userRepository.getReferenceById(authorId))
+                .build()));
+    }
 }
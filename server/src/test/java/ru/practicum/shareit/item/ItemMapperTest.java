@@ -25,8 +25,8 @@ public class ItemMapperTest {
             .description("desc1")
             .request(new ItemRequest(
                     2L,
-                    "descr", new User(1L, "uname", "email.com"),
-                    LocalDateTime.now())
+                    "descr", new User(1L, "uname", "email.com", null),
+                    LocalDateTime.now(), null)
             )
             .build();
 
@@ -46,14 +46,14 @@ public class ItemMapperTest {
         LocalDateTime start = LocalDateTime.of(2011, 12, 23, 23, 34);
         LocalDateTime end = LocalDateTime.of(2012, 12, 23, 23, 34);
         Booking lastBooking = Booking.builder()
-                .booker(new User(2L, "name2", "mail2"))
+                .booker(new User(2L, "name2", "mail2", null))
                 .status(BookingStatus.APPROVED)
                 .item(item)
                 .start(start)
                 .end(end)
                 .build();
         List<Comment> comments = List.of(Comment.builder()
-                .author(new User(3L, "name3", "email3"))
+                .author(new User(3L, "name3", "email3", null))
                 .text("text")
                 .id(2L)
                 .created(LocalDateTime.now()).build());
@@ -79,7 +79,7 @@ public class ItemMapperTest {
                 .description("dd")
                 .name("nn")
                 .build();
-        User user = new User(2L, "rr", "m@d.com");
+        User user = new User(2L, "rr", "m@d.com", null);
         ItemRequest request = item.getRequest();
 
         Item item2 = ItemMapper.toItem(dto, user, request);
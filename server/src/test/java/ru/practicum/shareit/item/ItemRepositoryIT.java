@@ -6,8 +6,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.dto.ItemView;
+import ru.practicum.shareit.item.dto.ItemWithBookingSummary;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
@@ -17,6 +20,7 @@ import ru.practicum.shareit.user.model.User;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.anyOf;
@@ -37,15 +41,15 @@ public class ItemRepositoryIT {
 
     @BeforeEach
     void setUp() {
-        User user1 = new User(1L, "Igor", "e@mail.ru");
-        User user2 = new User(2L, "Petr", "p@goole.com");
+        User user1 = new User(1L, "Igor", "e@mail.ru", null);
+        User user2 = new User(2L, "Petr", "p@goole.com", null);
 
 
         user1 = userRepository.save(user1);
         user2 = userRepository.save(user2);
 
-        ItemRequest request1 = new ItemRequest(1L, "desc1", user2, LocalDateTime.now());
-        ItemRequest request2 = new ItemRequest(2L, "desc2", user1, LocalDateTime.now());
+        ItemRequest request1 = new ItemRequest(1L, "desc1", user2, LocalDateTime.now(), null);
+        ItemRequest request2 = new ItemRequest(2L, "desc2", user1, LocalDateTime.now(), null);
 
         request1 = requestRepository.save(request1);
         request2 = requestRepository.save(request2);
@@ -80,8 +84,8 @@ public class ItemRepositoryIT {
     }
 
     @Test
-    void findAllByOwnerId_whenAll_thenReturn2() {
-        List<Item> items = repository.findAllByOwnerId(1L, PageRequest.of(0, 5));
+    void findAllWithBookingSummaryByOwnerId_whenAll_thenReturn2() {
+        List<Item> items = items(repository.findAllWithBookingSummaryByOwnerId(1L, PageRequest.of(0, 5)));
 
         assertThat(items.size(), equalTo(2));
         assertThat(items.get(0).getOwner().getId(), equalTo(1L));
@@ -89,16 +93,27 @@ public class ItemRepositoryIT {
     }
 
     @Test
-    void findAllByOwnerId_whenSize1_thenReturn1() {
-        List<Item> items = repository.findAllByOwnerId(1L, PageRequest.of(0, 1));
+    void findAllWithBookingSummaryByOwnerId_whenSize1_thenReturn1() {
+        List<Item> items = items(repository.findAllWithBookingSummaryByOwnerId(1L, PageRequest.of(0, 1)));
 
         assertThat(items.size(), equalTo(1));
         assertThat(items.get(0).getOwner().getId(), equalTo(1L));
     }
 
+    @Test
+    void findAllWithBookingSummaryByOwnerIdAndIdGreaterThan_whenAfterFirstItem_thenReturnRest() {
+        List<Item> first = items(repository.findAllWithBookingSummaryByOwnerId(
+                1L, PageRequest.of(0, 1, Sort.by("id"))));
+        List<Item> items = items(repository.findAllWithBookingSummaryByOwnerIdAndIdGreaterThan(
+                1L, first.get(0).getId(), PageRequest.of(0, 5, Sort.by("id"))));
+
+        assertThat(items.size(), equalTo(1));
+        assertThat(items.get(0).getName(), equalTo("name3"));
+    }
+
     @Test
     void searchItems_whenContainsName_thenReturn2() {
-        List<Item> items = repository.searchItems("name", PageRequest.of(0, 5));
+        List<ItemView> items = repository.searchItems("name", PageRequest.of(0, 5));
 
         assertThat(items.size(), equalTo(2));
         assertTrue("Don't contains substring", items.get(0).getName().contains("name") ||
@@ -109,7 +124,7 @@ public class ItemRepositoryIT {
 
     @Test
     void searchItems_whenNameEqualsNameSize1_thenReturn1() {
-        List<Item> items = repository.searchItems("name", PageRequest.of(0, 1));
+        List<ItemView> items = repository.searchItems("name", PageRequest.of(0, 1));
 
         assertThat(items.size(), equalTo(1));
         assertTrue("Don't contains substring", items.get(0).getName().contains("name") ||
@@ -118,23 +133,23 @@ public class ItemRepositoryIT {
 
     @Test
     void searchItems_whenNoMatches_thenReturn0() {
-        List<Item> items = repository.searchItems("oper", PageRequest.of(0, 1));
+        List<ItemView> items = repository.searchItems("oper", PageRequest.of(0, 1));
 
         assertThat(items.size(), equalTo(0));
     }
 
     @Test
     void findAllByRequestIdIn_whenAllRequests_thenReturn2() {
-        List<Item> items = repository.findAllByRequestIdIn(Set.of(1L, 2L));
+        List<ItemView> items = repository.findAllByRequestIdIn(Set.of(1L, 2L));
 
         assertThat(items.size(), equalTo(2));
-        assertThat(items.get(0).getRequest().getId(), anyOf(equalTo(1L), equalTo(2L)));
-        assertThat(items.get(1).getRequest().getId(), anyOf(equalTo(1L), equalTo(2L)));
+        assertThat(items.get(0).getRequestId(), anyOf(equalTo(1L), equalTo(2L)));
+        assertThat(items.get(1).getRequestId(), anyOf(equalTo(1L), equalTo(2L)));
     }
 
     @Test
     void findAllByRequestIdIn_whenNoRequest_thenReturn0() {
-        List<Item> items = repository.findAllByRequestIdIn(Set.of(5L));
+        List<ItemView> items = repository.findAllByRequestIdIn(Set.of(5L));
 
         assertThat(items.size(), equalTo(0));
     }
@@ -153,4 +168,8 @@ public class ItemRepositoryIT {
 
         assertThat(items.size(), equalTo(0));
     }
+
+    private static List<Item> items(List<ItemWithBookingSummary> rows) {
+        return rows.stream().map(ItemWithBookingSummary::getItem).collect(Collectors.toList());
+    }
 }
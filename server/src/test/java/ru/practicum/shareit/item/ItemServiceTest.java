@@ -12,9 +12,14 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import ru.practicum.shareit.booking.BookingIntervalIndex;
 import ru.practicum.shareit.booking.BookingRepository;
-import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.ItemBookingSummaryRepository;
+import ru.practicum.shareit.booking.ItemBookingSummaryUpdater;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.model.SummarizedBooking;
 import ru.practicum.shareit.exception.AccessDeniedException;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
@@ -22,8 +27,11 @@ import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CreateCommentDto;
 import ru.practicum.shareit.item.dto.GetItemDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemView;
+import ru.practicum.shareit.item.dto.ItemWithBookingSummary;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.param.PaginationRequest;
 import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
@@ -32,12 +40,16 @@ import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -52,6 +64,14 @@ public class ItemServiceTest {
     private ItemRequestRepository requestRepository;
     @Mock
     private CommentRepository commentRepository;
+    @Mock
+    private ItemSearchEngine searchEngine;
+    @Mock
+    private BookingIntervalIndex intervalIndex;
+    @Mock
+    private ItemBookingSummaryRepository summaryRepository;
+    @Mock
+    private ItemBookingSummaryUpdater summaryUpdater;
     @InjectMocks
     private ItemServiceImpl service;
     @Captor
@@ -64,8 +84,8 @@ public class ItemServiceTest {
 
     @BeforeEach
     void setUp() {
-        user = new User(1L, "name", "email@mail.ru");
-        user2 = new User(2L, "name2", "mail@yphoo.com");
+        user = new User(1L, "name", "email@mail.ru", null);
+        user2 = new User(2L, "name2", "mail@yphoo.com", null);
         dto = ItemDto.builder()
                 .name("phone")
                 .description("desc")
@@ -80,12 +100,12 @@ public class ItemServiceTest {
                 .description("desc")
                 .build();
 
-        request = new ItemRequest(1L, "desc", user2, LocalDateTime.now());
+        request = new ItemRequest(1L, "desc", user2, LocalDateTime.now(), null);
     }
 
     @Test
     void addItem_whenNoUser_thenThrowNotFound() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userRepository.existsById(anyLong())).thenReturn(false);
 
         assertThrows(NotFoundException.class, () -> service.addItem(1L, dto));
     }
@@ -93,7 +113,8 @@ public class ItemServiceTest {
     @Test
     void addItem_whenWithRequestButNoRequest_thenThrowNotFound() {
         when(requestRepository.findById(1L)).thenReturn(Optional.empty());
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
 
         assertThrows(NotFoundException.class, () -> service.addItem(1L, dto));
     }
@@ -101,7 +122,8 @@ public class ItemServiceTest {
     @Test
     void addItem_whenSuccessful_thenReturnDto() {
         when(requestRepository.findById(1L)).thenReturn(Optional.of(request));
-        when(userRepository.findById(2L)).thenReturn(Optional.of(user2));
+        when(userRepository.existsById(2L)).thenReturn(true);
+        when(userRepository.getReferenceById(2L)).thenReturn(user2);
         when(itemRepository.save(any(Item.class))).thenReturn(Item.builder()
                 .id(1L)
                 .name("name")
@@ -118,6 +140,7 @@ public class ItemServiceTest {
         assertThat(item.getId(), Matchers.equalTo(1L));
         assertThat(captor.getValue().getOwner(), Matchers.equalTo(user2));
         assertThat(captor.getValue().getRequest(), Matchers.equalTo(request));
+        verify(searchEngine).index(any(Item.class));
     }
 
     @Test
@@ -171,27 +194,11 @@ public class ItemServiceTest {
                 .name("name")
                 .description("desc")
                 .build();
-        Booking booking1 = Booking.builder()
-                .id(1L)
-                .item(item)
-                .start(LocalDateTime.of(2020, 12, 23, 12, 30))
-                .end(LocalDateTime.of(2023, 12, 23, 12, 34))
-                .booker(user2)
-                .status(BookingStatus.APPROVED)
-                .build();
-        Booking booking2 = Booking.builder()
-                .id(2L)
-                .item(item)
-                .start(LocalDateTime.of(2025, 12, 23, 12, 30))
-                .end(LocalDateTime.of(2026, 12, 23, 12, 34))
-                .booker(user2)
-                .status(BookingStatus.WAITING)
-                .build();
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item2));
-        when(bookingRepository.findLastBookingsOfItem(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(List.of(booking1));
-        when(bookingRepository.findNextBookingsOfItem(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(List.of(booking2));
+        when(bookingRepository.findLastAndNextBookingsOfItems(eq(List.of(1L)), any(LocalDateTime.class)))
+                .thenReturn(List.of(
+                        bookingView(1L, 1L, LocalDateTime.of(2020, 12, 23, 12, 30), true),
+                        bookingView(2L, 1L, LocalDateTime.of(2025, 12, 23, 12, 30), false)));
 
         GetItemDto gotItem = service.getItemById(1L, 1L);
 
@@ -201,6 +208,31 @@ public class ItemServiceTest {
         assertThat(gotItem.getNextBooking().getId(), Matchers.equalTo(2L));
     }
 
+    @Test
+    void getItemById_whenSummaryCurrent_thenTakeBookingsFromIt() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(summaryRepository.findById(1L)).thenReturn(Optional.of(summary(1L, LocalDateTime.now().plusDays(1))));
+
+        GetItemDto gotItem = service.getItemById(1L, 1L);
+
+        assertThat(gotItem.getLastBooking().getId(), Matchers.equalTo(1L));
+        assertThat(gotItem.getNextBooking().getId(), Matchers.equalTo(2L));
+        verify(bookingRepository, never()).findLastAndNextBookingsOfItems(any(), any());
+    }
+
+    @Test
+    void getItemById_whenNextBookingOfSummaryStarted_thenReadBookings() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(summaryRepository.findById(1L)).thenReturn(Optional.of(summary(1L, LocalDateTime.now().minusMinutes(1))));
+        when(bookingRepository.findLastAndNextBookingsOfItems(eq(List.of(1L)), any(LocalDateTime.class)))
+                .thenReturn(List.of(bookingView(2L, 1L, LocalDateTime.now().minusMinutes(1), true)));
+
+        GetItemDto gotItem = service.getItemById(1L, 1L);
+
+        assertThat(gotItem.getLastBooking().getId(), Matchers.equalTo(2L));
+        assertThat(gotItem.getNextBooking(), Matchers.nullValue());
+    }
+
     @Test
     void getItemById_whenComments_thenAddComments() {
         Comment comment = Comment.builder()
@@ -218,28 +250,10 @@ public class ItemServiceTest {
 
     @Test
     void getItems_generalCheck() {
-        Booking booking1 = Booking.builder()
-                .id(1L)
-                .item(item)
-                .start(LocalDateTime.of(2020, 12, 23, 12, 30))
-                .end(LocalDateTime.of(2023, 12, 23, 12, 34))
-                .booker(user2)
-                .status(BookingStatus.APPROVED)
-                .build();
-        Booking booking2 = Booking.builder()
-                .id(2L)
-                .item(item.toBuilder().id(2L).build())
-                .start(LocalDateTime.of(2025, 12, 23, 12, 30))
-                .end(LocalDateTime.of(2026, 12, 23, 12, 34))
-                .booker(user2)
-                .status(BookingStatus.WAITING)
-                .build();
-        when(itemRepository.findAllByOwnerId(anyLong(), any(Pageable.class)))
-                .thenReturn(List.of(item));
-        when(bookingRepository.findLastBookingOfItems(any(List.class), any(LocalDateTime.class)))
-                .thenReturn(List.of(booking1, booking2));
-        when(bookingRepository.findNextBookingOfItems(any(List.class), any(LocalDateTime.class)))
-                .thenReturn(Collections.emptyList());
+        when(itemRepository.findAllWithBookingSummaryByOwnerId(anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(itemWithSummary(item, null)));
+        when(bookingRepository.findLastAndNextBookingsOfItems(eq(List.of(1L)), any(LocalDateTime.class)))
+                .thenReturn(List.of(bookingView(1L, 1L, LocalDateTime.of(2020, 12, 23, 12, 30), true)));
         when(commentRepository.findByItemIdIn(any(List.class))).thenReturn(Collections.emptyList());
 
         List<GetItemDto> items = service.getItems(1L, new PaginationRequest(0, 5));
@@ -250,6 +264,19 @@ public class ItemServiceTest {
         assertThat(items.get(0).getComments(), Matchers.nullValue(null));
     }
 
+    @Test
+    void getItems_whenSummariesCurrent_thenReadNoBookings() {
+        when(itemRepository.findAllWithBookingSummaryByOwnerId(anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(itemWithSummary(item, summary(1L, LocalDateTime.now().plusDays(1)))));
+        when(commentRepository.findByItemIdIn(any(List.class))).thenReturn(Collections.emptyList());
+
+        List<GetItemDto> items = service.getItems(1L, new PaginationRequest(0, 5));
+
+        assertThat(items.get(0).getLastBooking().getId(), Matchers.equalTo(1L));
+        assertThat(items.get(0).getNextBooking().getId(), Matchers.equalTo(2L));
+        verify(bookingRepository, never()).findLastAndNextBookingsOfItems(any(), any());
+    }
+
     @Test
     void searchItems_whenBlankText_thenReturnEmptyList() {
         List<ItemDto> items = service.searchItems("", new PaginationRequest(0, 5));
@@ -259,8 +286,13 @@ public class ItemServiceTest {
 
     @Test
     void searchItems_whenSuccessful_thenReturnList() {
-        when(itemRepository.searchItems("text", PageRequest.of(0, 1, Sort.by(Sort.Direction.ASC, "id"))))
-                .thenReturn(List.of(item));
+        when(searchEngine.search("text", PageRequest.of(0, 1, Sort.by(Sort.Direction.ASC, "id"))))
+                .thenReturn(List.of(new SpelAwareProxyProjectionFactory().createProjection(ItemView.class, Map.of(
+                        "id", 1L,
+                        "name", "phone",
+                        "description", "desc",
+                        "available", true,
+                        "requestId", 1L))));
 
         List<ItemDto> items = service.searchItems("text", new PaginationRequest(0, 1));
 
@@ -322,4 +354,55 @@ public class ItemServiceTest {
 
         assertThat(comment.getId(), Matchers.equalTo(1L));
     }
+
+    private static ItemBookingSummary summary(long itemId, LocalDateTime nextStart) {
+        return ItemBookingSummary.builder()
+                .itemId(itemId)
+                .last(new SummarizedBooking(1L, 2L, nextStart.minusDays(2), nextStart.minusDays(1)))
+                .next(new SummarizedBooking(2L, 2L, nextStart, nextStart.plusDays(1)))
+                .build();
+    }
+
+    private static ItemWithBookingSummary itemWithSummary(Item item, ItemBookingSummary summary) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("item", item);
+        row.put("summary", summary);
+        return new SpelAwareProxyProjectionFactory().createProjection(ItemWithBookingSummary.class, row);
+    }
+
+    private static ItemBookingView bookingView(long id, long itemId, LocalDateTime start, boolean last) {
+        return new SpelAwareProxyProjectionFactory().createProjection(ItemBookingView.class, Map.of(
+                "id", id,
+                "itemId", itemId,
+                "bookerId", 2L,
+                "start", start,
+                "end", start.plusDays(1),
+                "last", last));
+    }
+
+    @Test
+    void getAvailability_whenPeriodEmpty_thenThrowBadRequest() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+
+        assertThrows(BadRequestException.class, () -> service.getAvailability(1L, from, from));
+    }
+
+    @Test
+    void getAvailability_whenPeriodInPast_thenReturnEmpty() {
+        when(itemRepository.existsById(1L)).thenReturn(true);
+
+        assertThat(service.getAvailability(1L, LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1)),
+                Matchers.empty());
+        verifyNoInteractions(intervalIndex);
+    }
+
+    @Test
+    void getAvailability_whenPeriodStartsInPast_thenAskIndexFromNow() {
+        LocalDateTime to = LocalDateTime.now().plusDays(1);
+        when(itemRepository.existsById(1L)).thenReturn(true);
+
+        service.getAvailability(1L, LocalDateTime.now().minusDays(1), to);
+
+        verify(intervalIndex).findFree(eq(1L), argThat(from -> from.isAfter(LocalDateTime.now().minusMinutes(1))), eq(to));
+    }
 }
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.item.search;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemView;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TrigramItemSearchEngineTest {
+    @Mock
+    private ItemRepository itemRepository;
+    @InjectMocks
+    private TrigramItemSearchEngine engine;
+    private final Item drill = Item.builder().id(1L).name("Drill").description("Cordless drill").available(true).build();
+    private final Item saw = Item.builder().id(2L).name("Saw").description("Sharp saw").available(true).build();
+    private final Item hammer = Item.builder().id(3L).name("Hammer").description("Old drill hammer").available(false).build();
+
+    @BeforeEach
+    void setUp() {
+        when(itemRepository.findByIdGreaterThan(anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(drill, saw, hammer));
+        engine.rebuild();
+    }
+
+    @Test
+    void search_whenSubstringMatches_thenReturnAvailableItems() {
+        ItemView drillView = view(drill);
+        when(itemRepository.findViewsByIdIn(List.of(1L))).thenReturn(List.of(drillView));
+
+        List<ItemView> items = engine.search("dRiL", PageRequest.of(0, 10));
+
+        assertThat(items, Matchers.contains(drillView));
+    }
+
+    @Test
+    void search_whenOffset_thenSkipMatches() {
+        ItemView sawView = view(saw);
+        when(itemRepository.findViewsByIdIn(List.of(2L))).thenReturn(List.of(sawView));
+
+        List<ItemView> items = engine.search("ar", PageRequest.of(1, 1));
+
+        assertThat(items, Matchers.empty());
+        assertThat(engine.search("sharp", PageRequest.of(0, 1)), Matchers.contains(sawView));
+    }
+
+    @Test
+    void search_whenItemReindexed_thenOldTextNoLongerMatches() {
+        engine.index(drill.toBuilder().name("Screwdriver").description("Electric").build());
+
+        assertThat(engine.search("cordless", PageRequest.of(0, 10)), Matchers.empty());
+        verify(itemRepository, never()).findViewsByIdIn(any());
+    }
+
+    @Test
+    void search_whenQueryShorterThanTrigram_thenFallBackToRepository() {
+        Pageable pageable = PageRequest.of(0, 10);
+        ItemView drillView = view(drill);
+        when(itemRepository.searchItems("dr", pageable)).thenReturn(List.of(drillView));
+
+        assertThat(engine.search("dr", pageable), Matchers.contains(drillView));
+    }
+
+    private static ItemView view(Item item) {
+        return new SpelAwareProxyProjectionFactory().createProjection(ItemView.class, item);
+    }
+}
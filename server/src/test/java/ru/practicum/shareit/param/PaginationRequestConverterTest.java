@@ -0,0 +1,46 @@
+package ru.practicum.shareit.param;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.exception.BadRequestException;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PaginationRequestConverterTest {
+    private final Sort sort = Sort.by("id");
+
+    @Test
+    void toPageable_whenFromIsMultipleOfSize_thenPageRequest() {
+        Pageable pageable = PaginationRequestConverter.toPageable(new PaginationRequest(20, 10), sort);
+
+        assertThat(pageable, equalTo(PageRequest.of(2, 10, sort)));
+    }
+
+    @Test
+    void toPageable_whenFromIsNotMultipleOfSize_thenStartAtFrom() {
+        Pageable pageable = PaginationRequestConverter.toPageable(new PaginationRequest(3, 10), sort);
+
+        assertThat(pageable.getOffset(), equalTo(3L));
+        assertThat(pageable.getPageSize(), equalTo(10));
+    }
+
+    @Test
+    void pageCursor_whenEncoded_thenDecodeToSameValue() {
+        PageCursor cursor = PageCursor.of(LocalDateTime.of(2023, 1, 2, 3, 4, 5), 42L);
+
+        assertThat(PageCursor.decode(cursor.encode()), equalTo(cursor));
+        assertThat(PageCursor.decode(PageCursor.of(7L).encode()), equalTo(PageCursor.of(7L)));
+    }
+
+    @Test
+    void pageCursor_whenMalformed_thenThrowBadRequest() {
+        assertThrows(BadRequestException.class, () -> PageCursor.decode("%%%"));
+        assertThrows(BadRequestException.class, () -> PageCursor.decodePositioned(PageCursor.of(7L).encode()));
+    }
+}
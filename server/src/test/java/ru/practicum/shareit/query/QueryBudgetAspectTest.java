@@ -0,0 +1,79 @@
+package ru.practicum.shareit.query;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class QueryBudgetAspectTest {
+    private final QueryCounter counter = new QueryCounter();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final QueryBudgetAspect aspect = new QueryBudgetAspect(registry);
+    @Mock
+    private ProceedingJoinPoint joinPoint;
+
+    @BeforeEach
+    void setUp() throws Throwable {
+        when(joinPoint.proceed()).then(i -> {
+            counter.inspect("select 1");
+            counter.inspect("select 2");
+            return "result";
+        });
+    }
+
+    @Test
+    void checkBudget_whenOverBudget_thenCountAndReturn() throws Throwable {
+        stubSignature();
+
+        Object result = aspect.checkBudget(joinPoint, budget(1));
+
+        assertThat(result, equalTo("result"));
+        assertThat(registry.get("shareit.query.budget.exceeded").tag("method", "QueryBudgetAspectTest.call")
+                .counter().count(), equalTo(1.0));
+    }
+
+    @Test
+    void checkBudget_whenOverBudgetAndEnforced_thenThrow() {
+        stubSignature();
+        ReflectionTestUtils.setField(aspect, "enforce", true);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> aspect.checkBudget(joinPoint, budget(1)));
+
+        assertThat(e.getMessage(), equalTo("QueryBudgetAspectTest.call ran 2 SQL statements, its budget is 1"));
+    }
+
+    @Test
+    void checkBudget_whenWithinBudget_thenNothingCounted() throws Throwable {
+        ReflectionTestUtils.setField(aspect, "enforce", true);
+
+        aspect.checkBudget(joinPoint, budget(2));
+
+        assertThat(registry.find("shareit.query.budget.exceeded").counter(), equalTo(null));
+    }
+
+    private void stubSignature() {
+        Signature signature = mock(Signature.class);
+        when(signature.getDeclaringType()).thenReturn(QueryBudgetAspectTest.class);
+        when(signature.getName()).thenReturn("call");
+        when(joinPoint.getSignature()).thenReturn(signature);
+    }
+
+    private static QueryBudget budget(int value) {
+        QueryBudget budget = mock(QueryBudget.class);
+        when(budget.value()).thenReturn(value);
+        return budget;
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.shareit.query;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+@ExtendWith(OutputCaptureExtension.class)
+public class SlowQueryLogTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void afterQuery_whenSlow_thenCountAndLog(CapturedOutput output) {
+        slowQueryLog(1.0).afterQuery(execution(300), queries("select * from items"));
+
+        assertThat(slowQueries(), equalTo(1.0));
+        assertThat(output.getOut(), containsString("Slow SQL, 300 ms: select * from items"));
+    }
+
+    @Test
+    void afterQuery_whenFast_thenIgnore(CapturedOutput output) {
+        slowQueryLog(1.0).afterQuery(execution(100), queries("select * from users"));
+
+        assertThat(slowQueries(), equalTo(0.0));
+        assertThat(output.getOut(), not(containsString("select * from users")));
+    }
+
+    @Test
+    void afterQuery_whenNotSampled_thenOnlyCount(CapturedOutput output) {
+        slowQueryLog(0.0).afterQuery(execution(300), queries("select * from bookings"));
+
+        assertThat(slowQueries(), equalTo(1.0));
+        assertThat(output.getOut(), not(containsString("select * from bookings")));
+    }
+
+    private SlowQueryLog slowQueryLog(double sampleRate) {
+        SlowQueryProperties properties = new SlowQueryProperties();
+        properties.setThreshold(Duration.ofMillis(200));
+        properties.setSampleRate(sampleRate);
+        SlowQueryLog slowQueryLog = new SlowQueryLog(properties);
+        slowQueryLog.bindTo(registry);
+        return slowQueryLog;
+    }
+
+    private double slowQueries() {
+        return registry.get("shareit.sql.slow").counter().count();
+    }
+
+    private static ExecutionInfo execution(long elapsedMillis) {
+        ExecutionInfo execution = new ExecutionInfo();
+        execution.setElapsedTime(elapsedMillis);
+        return execution;
+    }
+
+    private static List<QueryInfo> queries(String sql) {
+        return List.of(new QueryInfo(sql));
+    }
+}
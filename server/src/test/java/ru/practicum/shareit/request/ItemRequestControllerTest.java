@@ -5,6 +5,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletResponse;
 import ru.practicum.shareit.param.PaginationRequest;
 import ru.practicum.shareit.request.dto.CreateRequestDto;
 import ru.practicum.shareit.request.dto.GetItemRequestItemDto;
@@ -54,7 +55,7 @@ public class ItemRequestControllerTest {
     void getAllRequests() {
         when(service.getAllRequests(2L, new PaginationRequest(0, 10))).thenReturn(List.of(dto));
 
-        assertThat(controller.getAllRequests(2L, 0, 10), equalTo(List.of(dto)));
+        assertThat(controller.getAllRequests(2L, 0, 10, null, new MockHttpServletResponse()), equalTo(List.of(dto)));
     }
 
     @Test
@@ -18,7 +18,7 @@ import static org.hamcrest.Matchers.*;
 public class ItemRequestMapperTest {
     @Test
     void toItemRequest() {
-        User user = new User(1L, "name", "e@mail.com");
+        User user = new User(1L, "name", "e@mail.com", null);
 
         ItemRequest request = ItemRequestMapper.toItemRequest(new CreateRequestDto("desc23"), user);
 
@@ -35,7 +35,7 @@ public class ItemRequestMapperTest {
                 .id(1L)
                 .created(created)
                 .description("desc45")
-                .requestor(new User(1L, "name", "e@mail.com"))
+                .requestor(new User(1L, "name", "e@mail.com", null))
                 .build();
         List<Item> items = List.of(Item.builder()
                 .id(23L)
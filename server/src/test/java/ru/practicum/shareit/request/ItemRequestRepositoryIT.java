@@ -11,6 +11,7 @@ import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dto.ItemRequestView;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
@@ -32,15 +33,15 @@ public class ItemRequestRepositoryIT {
 
     @BeforeEach
     void setUp() {
-        User user1 = new User(1L, "Igor", "e@mail.ru");
-        User user2 = new User(2L, "Petr", "p@goole.com");
+        User user1 = new User(1L, "Igor", "e@mail.ru", null);
+        User user2 = new User(2L, "Petr", "p@goole.com", null);
 
         user1 = userRepository.save(user1);
         user2 = userRepository.save(user2);
 
-        ItemRequest request1 = new ItemRequest(1L, "desc1", user2, LocalDateTime.of(2015, 12, 23, 12, 34));
-        ItemRequest request2 = new ItemRequest(2L, "desc2", user1, LocalDateTime.of(2016, 12, 23, 12, 34));
-        ItemRequest request3 = new ItemRequest(3L, "desc3", user2, LocalDateTime.of(2017, 12, 23, 12, 34));
+        ItemRequest request1 = new ItemRequest(1L, "desc1", user2, LocalDateTime.of(2015, 12, 23, 12, 34), null);
+        ItemRequest request2 = new ItemRequest(2L, "desc2", user1, LocalDateTime.of(2016, 12, 23, 12, 34), null);
+        ItemRequest request3 = new ItemRequest(3L, "desc3", user2, LocalDateTime.of(2017, 12, 23, 12, 34), null);
 
         request1 = requestRepository.save(request1);
         request2 = requestRepository.save(request2);
@@ -78,7 +79,7 @@ public class ItemRequestRepositoryIT {
 
     @Test
     void findAllByRequestorId() {
-        List<ItemRequest> requests = requestRepository.findAllByRequestorId(
+        List<ItemRequestView> requests = requestRepository.findAllByRequestorId(
                 2L,
                 Sort.by(Sort.Direction.DESC, "created")
         );
@@ -90,7 +91,7 @@ public class ItemRequestRepositoryIT {
 
     @Test
     void findAllByRequestorIdNot() {
-        List<ItemRequest> requests = requestRepository.findAllByRequestorIdNot(2L, PageRequest.of(0, 10));
+        List<ItemRequestView> requests = requestRepository.findAllByRequestorIdNot(2L, PageRequest.of(0, 10));
 
         assertThat(requests.size(), equalTo(1));
         assertThat(requests.get(0).getId(), equalTo(2L));
@@ -8,18 +8,22 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemView;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.param.PaginationRequest;
 import ru.practicum.shareit.request.dto.CreateRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestView;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -39,8 +43,8 @@ public class ItemRequestServiceTest {
     private ItemRepository itemRepository;
     @InjectMocks
     private ItemRequestServiceImpl service;
-    private final User user = new User(1L, "name", "mail.com");
-    private final User user2 = new User(2L, "name2", "mw@g.com");
+    private final User user = new User(1L, "name", "mail.com", null);
+    private final User user2 = new User(2L, "name2", "mw@g.com", null);
     private final ItemRequest request = ItemRequest.builder()
             .id(1L)
             .description("r_desc")
@@ -55,17 +59,25 @@ public class ItemRequestServiceTest {
             .description("i_desc")
             .request(request)
             .build();
+    private final ItemRequestView requestView = new SpelAwareProxyProjectionFactory()
+            .createProjection(ItemRequestView.class, request);
+    private final ItemView item1View = new SpelAwareProxyProjectionFactory().createProjection(ItemView.class, Map.of(
+            "id", 1L,
+            "name", "name",
+            "description", "i_desc",
+            "available", true,
+            "requestId", 1L));
 
     @Test
     void addRequest_whenNoUser_thenThrowNotFound() {
-        when(userRepository.findById(2L)).thenReturn(Optional.empty());
+        when(userRepository.existsById(2L)).thenReturn(false);
 
         assertThrows(NotFoundException.class, () -> service.addRequest(2L, new CreateRequestDto("desc")));
     }
 
     @Test
     void addRequest_whenSuccessful_thenReturnDto() {
-        when(userRepository.findById(2L)).thenReturn(Optional.of(user2));
+        when(userRepository.existsById(2L)).thenReturn(true);
         when(requestRepository.save(any(ItemRequest.class))).thenReturn(request);
 
         ItemRequestDto dto = service.addRequest(2L, new CreateRequestDto("r_desc"));
@@ -77,17 +89,17 @@ public class ItemRequestServiceTest {
 
     @Test
     void getUserRequests_whenNoUser_thenThrowNotFound() {
-        when(userRepository.findById(2L)).thenReturn(Optional.empty());
+        when(userRepository.existsById(2L)).thenReturn(false);
 
         assertThrows(NotFoundException.class, () -> service.getUserRequests(2L));
     }
 
     @Test
     void getUserRequests_whenSuccessful_thenReturnDtoWithItemsList() {
-        when(userRepository.findById(2L)).thenReturn(Optional.of(user2));
-        when(itemRepository.findAllByRequestIdIn(any(Set.class))).thenReturn(List.of(item1));
+        when(userRepository.existsById(2L)).thenReturn(true);
+        when(itemRepository.findAllByRequestIdIn(any(Set.class))).thenReturn(List.of(item1View));
         when(requestRepository.findAllByRequestorId(2L, Sort.by(Sort.Direction.DESC, "created")))
-                .thenReturn(List.of(request));
+                .thenReturn(List.of(requestView));
 
         List<ItemRequestDto> requests = service.getUserRequests(2L);
 
@@ -99,16 +111,16 @@ public class ItemRequestServiceTest {
 
     @Test
     void getAllRequests_whenNoUser_thenThrowNotFound() {
-        when(userRepository.findById(2L)).thenReturn(Optional.empty());
+        when(userRepository.existsById(2L)).thenReturn(false);
 
         assertThrows(NotFoundException.class, () -> service.getAllRequests(2L, new PaginationRequest(0, 10)));
     }
 
     @Test
     void getAllRequests_whenSuccessful_thenReturnDtoWithItemsList() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(requestRepository.findAllByRequestorIdNot(anyLong(), any(Pageable.class))).thenReturn(List.of(request));
-        when(itemRepository.findAllByRequestIdIn(any(Set.class))).thenReturn(List.of(item1));
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(requestRepository.findAllByRequestorIdNot(anyLong(), any(Pageable.class))).thenReturn(List.of(requestView));
+        when(itemRepository.findAllByRequestIdIn(any(Set.class))).thenReturn(List.of(item1View));
 
         List<ItemRequestDto> requests = service.getAllRequests(1L, new PaginationRequest(0, 10));
 
@@ -120,14 +132,14 @@ public class ItemRequestServiceTest {
 
     @Test
     void getRequest_whenNoUser_thenThrowNotFound() {
-        when(userRepository.findById(2L)).thenReturn(Optional.empty());
+        when(userRepository.existsById(2L)).thenReturn(false);
 
         assertThrows(NotFoundException.class, () -> service.getRequest(2L, 1L));
     }
 
     @Test
     void getRequest_whenNoRequest_thenThrowNotFound() {
-        when(userRepository.findById(2L)).thenReturn(Optional.of(user2));
+        when(userRepository.existsById(2L)).thenReturn(true);
         when(requestRepository.findById(1L)).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> service.getRequest(2L, 1L));
@@ -135,7 +147,7 @@ public class ItemRequestServiceTest {
 
     @Test
     void getRequest_whenSuccessful_thenReturnDto() {
-        when(userRepository.findById(2L)).thenReturn(Optional.of(user2));
+        when(userRepository.existsById(2L)).thenReturn(true);
         when(requestRepository.findById(1L)).thenReturn(Optional.of(request));
         when(itemRepository.findAllByRequestId(1L)).thenReturn(List.of(item1));
 
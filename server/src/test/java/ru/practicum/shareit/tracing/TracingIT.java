@@ -0,0 +1,91 @@
+package ru.practicum.shareit.tracing;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "db.name=test8")
+@AutoConfigureMockMvc
+@DirtiesContext
+public class TracingIT {
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String GATEWAY_SPAN_ID = "00f067aa0ba902b7";
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+    @Autowired
+    private InMemorySpanExporter exporter;
+
+    @Test
+    void getOwnerBookings_whenTraceparentGiven_thenRequestServiceAndJdbcSpansInGatewayTrace() throws Exception {
+        long userId = userService.createUser(UserDto.builder().name("name").email("trace@mail.ru").build()).getId();
+
+        mvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", userId)
+                        .header("traceparent", "00-" + TRACE_ID + "-" + GATEWAY_SPAN_ID + "-01"))
+                .andExpect(status().isOk());
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+
+        List<SpanData> spans = exporter.getFinishedSpanItems().stream()
+                .filter(span -> span.getTraceId().equals(TRACE_ID))
+                .collect(Collectors.toList());
+        SpanData request = single(spans, "GET /bookings/owner");
+        assertThat(request.getKind(), equalTo(SpanKind.SERVER));
+        assertThat(request.getParentSpanId(), equalTo(GATEWAY_SPAN_ID));
+        assertThat(request.getAttributes().get(AttributeKey.longKey("http.status_code")), equalTo(200L));
+
+        SpanData service = single(spans, "BookingServiceImpl.getOwnerBookingsByState");
+        assertThat(service.getParentSpanId(), equalTo(request.getSpanId()));
+
+        List<SpanData> statements = spans.stream()
+                .filter(span -> span.getParentSpanId().equals(service.getSpanId()))
+                .collect(Collectors.toList());
+        assertThat(statements, everyItem(hasProperty("kind", equalTo(SpanKind.CLIENT))));
+        assertThat(statements.stream().map(span -> span.getAttributes().get(AttributeKey.stringKey("db.statement")))
+                .collect(Collectors.toList()), hasItem(containsString("from bookings")));
+    }
+
+    private static SpanData single(List<SpanData> spans, String name) {
+        List<SpanData> named = spans.stream().filter(span -> span.getName().equals(name)).collect(Collectors.toList());
+        assertThat(named, hasSize(1));
+        return named.get(0);
+    }
+
+    @TestConfiguration
+    static class InMemoryExport {
+        @Bean
+        InMemorySpanExporter inMemorySpanExporter() {
+            return InMemorySpanExporter.create();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "db.name=test5")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class UserCacheIT {
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ItemService itemService;
+
+    @Test
+    void existsById_whenUserExists_thenCacheAndCountHit() {
+        long id = userService.createUser(UserDto.builder().name("name").email("cache@mail.ru").build()).getId();
+
+        assertThat(userRepository.existsById(id), equalTo(true));
+        assertThat(userRepository.existsById(id), equalTo(true));
+
+        assertThat(meterRegistry.get("cache.gets").tag("cache", UserRepository.CACHE).tag("result", "hit")
+                .functionCounter().count(), equalTo(1.0));
+        assertThat(cache().get(id, Boolean.class), equalTo(true));
+    }
+
+    @Test
+    void existsById_whenUserMissing_thenDoNotCache() {
+        assertThat(userRepository.existsById(100L), equalTo(false));
+
+        assertThat(cache().get(100L), nullValue());
+    }
+
+    @Test
+    void deleteUserById_thenEvict() {
+        long id = userService.createUser(UserDto.builder().name("name").email("evict@mail.ru").build()).getId();
+        userRepository.existsById(id);
+
+        userService.deleteUserById(id);
+
+        assertThat(cache().get(id), nullValue());
+        assertThat(userRepository.existsById(id), equalTo(false));
+    }
+
+    @Test
+    void addItem_whenDeletedUserStillCached_thenFailOnForeignKey() {
+        long id = userService.createUser(UserDto.builder().name("name").email("stale@mail.ru").build()).getId();
+        userService.deleteUserById(id);
+        // put back by a check that read the user before the deletion
+        cache().put(id, true);
+
+        assertThrows(DataIntegrityViolationException.class, () -> itemService.addItem(id,
+                ItemDto.builder().name("drill").description("desc").available(true).build()));
+    }
+
+    @Test
+    void updateUser_thenEvict() {
+        long id = userService.createUser(UserDto.builder().name("name").email("update@mail.ru").build()).getId();
+        userRepository.existsById(id);
+
+        userService.updateUser(id, UserDto.builder().name("new").build());
+
+        assertThat(cache().get(id), nullValue());
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache(UserRepository.CACHE);
+    }
+}
@@ -45,21 +45,21 @@ public class UserServiceTest {
 
     @Test
     void createUser_whenSuccess_thenReturnUserDto() {
-        when(repository.save(any(User.class))).thenReturn(User.builder()
+        when(repository.saveAndFlush(any(User.class))).thenReturn(User.builder()
                 .id(1L)
                 .email("a@mail.com")
                 .name("Igor").build());
 
         UserDto user = service.createUser(dto);
 
-        verify(repository, times(1)).save(any(User.class));
+        verify(repository, times(1)).saveAndFlush(any(User.class));
         assertThat(user.getEmail(), equalTo("a@mail.com"));
         assertThat(user.getId(), equalTo(1L));
     }
 
     @Test
     void createUser_whenThrowDataIntegrityException_thenThrows() {
-        when(repository.save(any(User.class))).thenThrow(DataIntegrityViolationException.class);
+        when(repository.saveAndFlush(any(User.class))).thenThrow(DataIntegrityViolationException.class);
 
         assertThrows(UniqueViolationException.class, () -> service.createUser(dto));
     }
@@ -71,7 +71,7 @@ public class UserServiceTest {
                 .email("op@mail.ru")
                 .name("Petr").id(1L)
                 .build()));
-        when(repository.save(any(User.class))).thenReturn(new User(1L, "Igor", "a@mail.com"));
+        when(repository.save(any(User.class))).thenReturn(new User(1L, "Igor", "a@mail.com", null));
 
         service.updateUser(1L, dto);
 
@@ -95,7 +95,7 @@ public class UserServiceTest {
 
     @Test
     void findUserById_whenFound_thenReturnUser() {
-        when(repository.findById(1L)).thenReturn(Optional.of(new User(1L, "Igor", "a@mail.ru")));
+        when(repository.findById(1L)).thenReturn(Optional.of(new User(1L, "Igor", "a@mail.ru", null)));
 
         UserDto user = service.findUserById(1L);
 
@@ -106,8 +106,8 @@ public class UserServiceTest {
     @Test
     void getAllUsers_whenFound_thenReturnList() {
         when(repository.findAll()).thenReturn(List.of(
-                new User(1L, "I", "m@mail.ru"),
-                new User(2L, "O", "y@yandex.com"))
+                new User(1L, "I", "m@mail.ru", null),
+                new User(2L, "O", "y@yandex.com", null))
         );
 
         List<UserDto> users = service.getAllUsers();
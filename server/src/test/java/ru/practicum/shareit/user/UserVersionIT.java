@@ -0,0 +1,111 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.item.CommentRepository;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The ETags of items and bookings change with the users they show: a client revalidating after a rename gets
+ * the new name instead of 304.
+ */
+@SpringBootTest(properties = "db.name=test11")
+@AutoConfigureMockMvc
+@DirtiesContext
+public class UserVersionIT {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    private long ownerId;
+    private long bookerId;
+    private long itemId;
+
+    @BeforeEach
+    void setUp() {
+        ownerId = userService.createUser(UserDto.builder().name("owner").email("owner-" + System.nanoTime() + "@mail.ru")
+                .build()).getId();
+        bookerId = userService.createUser(UserDto.builder().name("booker").email("booker-" + System.nanoTime() + "@mail.ru")
+                .build()).getId();
+        itemId = itemService.addItem(ownerId, ItemDto.builder().name("drill").description("desc").available(true)
+                .build()).getId();
+    }
+
+    @Test
+    void getBooking_whenBookerRenamed_thenReturnNewName() throws Exception {
+        long bookingId = bookingService.addBooking(new BookingCreateDto(itemId, LocalDateTime.now().plusDays(2),
+                LocalDateTime.now().plusDays(1)), bookerId).getId();
+        String eTag = mvc.perform(get("/bookings/{id}", bookingId).header(USER_HEADER, ownerId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        rename(bookerId, "renamed");
+
+        mvc.perform(get("/bookings/{id}", bookingId).header(USER_HEADER, ownerId)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.booker.name").value("renamed"));
+    }
+
+    @Test
+    void getItem_whenCommentAuthorRenamed_thenReturnNewName() throws Exception {
+        transactionTemplate.executeWithoutResult(s -> commentRepository.save(Comment.builder()
+                .text("fine")
+                .created(LocalDateTime.now())
+                .item(itemRepository.getReferenceById(itemId))
+                .author(userRepository.getReferenceById(bookerId))
+                .build()));
+        String eTag = mvc.perform(get("/items/{id}", itemId).header(USER_HEADER, bookerId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        rename(bookerId, "renamed");
+
+        mvc.perform(get("/items/{id}", itemId).header(USER_HEADER, bookerId)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments[0].authorName").value("renamed"));
+    }
+
+    private void rename(long userId, String name) throws Exception {
+        mvc.perform(patch("/users/{id}", userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"" + name + "\"}"))
+                .andExpect(status().isOk());
+    }
+}
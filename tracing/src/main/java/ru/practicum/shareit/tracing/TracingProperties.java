@@ -0,0 +1,33 @@
+package ru.practicum.shareit.tracing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+/**
+ * Settings of the OpenTelemetry tracer, see {@link OpenTelemetryConfig}.
+ */
+@Data
+@ConfigurationProperties(prefix = "shareit.tracing")
+public class TracingProperties {
+    private boolean enabled = true;
+
+    /**
+     * The service.name of the spans, set by each application.
+     */
+    private String serviceName = "shareit";
+
+    /**
+     * Share of the traces started here that are recorded, from 0 to 1. The decision goes on in the traceparent
+     * header and the server follows it, so a request from the gateway is traced on both sides or on neither.
+     * Unrecorded requests only pay for a span that is never exported.
+     */
+    private double sampleRate = 0.01;
+
+    /**
+     * Recorded spans are appended to this file as JSON lines, see {@link FileSpanExporter}. Without it they
+     * are only passed to SpanExporter beans, if any.
+     */
+    private Path file;
+}
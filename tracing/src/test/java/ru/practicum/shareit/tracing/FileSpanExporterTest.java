@@ -0,0 +1,58 @@
+package ru.practicum.shareit.tracing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+
+public class FileSpanExporterTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void export_thenAppendJsonLinePerSpan(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("spans/spans.jsonl");
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+                .setResource(Resource.create(Attributes.of(AttributeKey.stringKey("service.name"), "shareit-server")))
+                .addSpanProcessor(SimpleSpanProcessor.create(new FileSpanExporter(file)))
+                .build();
+        Tracer tracer = tracerProvider.get("test");
+
+        Span parent = tracer.spanBuilder("GET /items").setSpanKind(SpanKind.SERVER).startSpan();
+        try (Scope ignored = parent.makeCurrent()) {
+            tracer.spanBuilder("SELECT").setAttribute("db.statement", "select * from items").startSpan().end();
+        } finally {
+            parent.end();
+        }
+        tracerProvider.close();
+
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines, hasSize(2));
+        JsonNode select = mapper.readTree(lines.get(0));
+        JsonNode request = mapper.readTree(lines.get(1));
+        assertThat(select.get("service").asText(), equalTo("shareit-server"));
+        assertThat(select.get("traceId").asText(), equalTo(parent.getSpanContext().getTraceId()));
+        assertThat(select.get("parentSpanId").asText(), equalTo(parent.getSpanContext().getSpanId()));
+        assertThat(select.get("name").asText(), equalTo("SELECT"));
+        assertThat(select.get("attributes").get("db.statement").asText(), equalTo("select * from items"));
+        assertThat(request.get("parentSpanId").isNull(), equalTo(true));
+        assertThat(request.get("kind").asText(), equalTo("SERVER"));
+        assertThat(request.get("durationMicros").asLong() >= select.get("durationMicros").asLong(), equalTo(true));
+    }
+}